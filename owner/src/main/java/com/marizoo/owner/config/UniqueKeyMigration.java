@@ -0,0 +1,94 @@
+package com.marizoo.owner.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * insert ignore로 중복을 막는 테이블의 unique key를 시작 시 확인한다.
+ * ddl-auto update는 기존 중복 행이 있으면 unique key 추가에 실패해도 로그만 남기고 넘어가므로,
+ * key가 없으면 중복 행을 지우고(pk가 가장 작은 행만 남긴다) 직접 추가한다.
+ * 그래도 key가 없으면 insert ignore가 중복을 막지 못하므로 시작을 중단한다.
+ * user 서버도 같은 DB에 같은 확인을 하므로, 다른 쪽이 먼저 추가해 실패한 경우는 다시 확인해서 넘어간다.
+ */
+@Slf4j
+@Component
+public class UniqueKeyMigration {
+
+    private static final List<UniqueKey> KEYS = List.of(
+            new UniqueKey("users_badge", "users_badge_id", "uk_users_badge_user_badge", "user_id", "badge_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param entityManagerFactory : ddl-auto update가 끝난 뒤에 확인하도록 받기만 한다
+     */
+    public UniqueKeyMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (UniqueKey key : KEYS) {
+            if (exists(key)) {
+                continue;
+            }
+            log.warn("{} unique key({})가 없어 중복 행을 지우고 추가합니다.", key.table, key.name);
+            int deleted = jdbcTemplate.update(key.dedupeSql());
+            log.warn("{} 중복 행 {}개 삭제", key.table, deleted);
+            try {
+                jdbcTemplate.execute(key.addSql());
+            } catch (DataAccessException e) {
+                log.warn("{} unique key 추가 실패", key.table, e);
+            }
+            if (!exists(key)) {
+                throw new IllegalStateException(key.table + " 테이블에 unique key(" + String.join(", ", key.columns) + ")가 없습니다.");
+            }
+        }
+    }
+
+    /**
+     * @return 컬럼 순서까지 같은 unique index가 있는지. 이름은 보지 않는다
+     */
+    private boolean exists(UniqueKey key) {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.statistics" +
+                        " where table_schema = database() and table_name = ? and non_unique = 0" +
+                        " group by index_name" +
+                        " having group_concat(column_name order by seq_in_index) = ?",
+                String.class, key.table, String.join(",", key.columns));
+        return !indexes.isEmpty();
+    }
+
+    private static final class UniqueKey {
+        private final String table;
+        private final String id;
+        private final String name;
+        private final String[] columns;
+
+        private UniqueKey(String table, String id, String name, String... columns) {
+            this.table = table;
+            this.id = id;
+            this.name = name;
+            this.columns = columns;
+        }
+
+        private String dedupeSql() {
+            StringBuilder sql = new StringBuilder("delete t from ").append(table).append(" t join ").append(table).append(" k on ");
+            for (String column : columns) {
+                sql.append("t.").append(column).append(" = k.").append(column).append(" and ");
+            }
+            return sql.append("t.").append(id).append(" > k.").append(id).toString();
+        }
+
+        private String addSql() {
+            return "alter table " + table + " add constraint " + name + " unique (" + String.join(", ", columns) + ")";
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package com.marizoo.owner.controller;
 
-import com.marizoo.owner.api.BulkBadgeRequestApi;
 import com.marizoo.owner.api.request.CreateBroadcastReq;
 import com.marizoo.owner.api.request.CreateVoteRequest;
 import com.marizoo.owner.api.request.EndVoteRequest;
 import com.marizoo.owner.api.response.CreateBroadcastResponse;
 import com.marizoo.owner.dto.CreateBroadcastDto;
 import com.marizoo.owner.entity.Vote;
+import com.marizoo.owner.exception.BadgeNotFoundException;
 import com.marizoo.owner.service.BroadcastService;
+import com.marizoo.owner.service.BulkBadgeService;
 import com.marizoo.owner.service.FeedService;
 import com.marizoo.owner.service.VoteService;
+import com.marizoo.owner.util.LiveBroadcastNotifier;
 import io.openvidu.java.client.*;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -24,6 +26,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -34,6 +38,8 @@ import java.util.Map;
 public class BroadcastController {
     private final BroadcastService broadcastService;
     private final VoteService voteService;
+    private final LiveBroadcastNotifier liveBroadcastNotifier;
+    private final BulkBadgeService bulkBadgeService;
 
     @Value("${OPENVIDU_URL}")
     private String OPENVIDU_URL;
@@ -76,6 +82,7 @@ public class BroadcastController {
         log.info("-----------------------------------------------------------------------");
 
         if(broadcastId != null){
+            liveBroadcastNotifier.broadcastStarted(broadcastId);
             return new ResponseEntity<>(new CreateBroadcastResponse(broadcastId, session.getSessionId(), connection.getToken()), HttpStatus.OK);
         }else{
             return new ResponseEntity<>("방송 생성 실패 :(", HttpStatus.BAD_REQUEST);
@@ -98,14 +105,20 @@ public class BroadcastController {
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_GATEWAY);
         }
+        liveBroadcastNotifier.broadcastEnded(broadcastId);
 
         return new ResponseEntity<>("방송 종료", HttpStatus.OK);
 
     }
 
     @PostMapping("/broadcasts/badges")
-    public ResponseEntity addBadgeAtRelatedUsers(@RequestBody BulkBadgeRequestApi bulkBadgeRequest) {
-        broadcastService.bulkAddBadge(bulkBadgeRequest.getUserIdList(), bulkBadgeRequest.getBadgeId());
+    public ResponseEntity addBadgeAtRelatedUsers(HttpServletRequest request) throws IOException {
+        // body : {"badgeId": 배지 PK, "userIdList": [유저 PK, ...]}
+        try {
+            bulkBadgeService.bulkAddBadge(request.getInputStream());
+        } catch (IllegalArgumentException | BadgeNotFoundException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -11,6 +11,7 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
+@Table(indexes = @Index(name = "idx_animal_store_modified", columnList = "animal_store_id, last_modified_date"))
 public class Animal extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,6 +15,7 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
+@Table(indexes = @Index(name = "idx_animal_store_last_modified", columnList = "last_modified_date"))
 public class AnimalStore extends BaseEntity {
 
     @Id
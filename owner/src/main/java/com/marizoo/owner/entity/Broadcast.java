@@ -10,6 +10,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_broadcast_status_start", columnList = "status, start_time, broadcast_id"),
+        @Index(name = "idx_broadcast_store_status_start", columnList = "animal_store_id, status, start_time, broadcast_id")
+})
 @Getter
 @Setter
 public class Broadcast extends BaseEntity {
@@ -21,6 +25,7 @@ public class Broadcast extends BaseEntity {
     private String description;
     private String thumbnail;
     private String sessionId;
+    @Column(name = "start_time")
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     @Enumerated(EnumType.STRING)
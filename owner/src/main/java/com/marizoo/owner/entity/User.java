@@ -9,7 +9,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_uid", columnList = "uid"),
+        @Index(name = "idx_users_nickname", columnList = "nickname"),
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_last_modified", columnList = "last_modified_date")
+})
 @Getter
 @Setter
 public class User extends BaseEntity {
@@ -7,6 +7,7 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_users_animal_store_user_store", columnNames = {"users_id", "animal_store_id"}))
 @Getter
 @Setter
 public class UsersAnimalStore extends BaseEntity {
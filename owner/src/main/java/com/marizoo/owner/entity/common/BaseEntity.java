@@ -22,6 +22,7 @@ public class BaseEntity {
 
     private String lastModifiedBy;
 
+    @Column(name = "last_modified_date")
     private LocalDateTime lastModifiedDate;
 
     @PrePersist
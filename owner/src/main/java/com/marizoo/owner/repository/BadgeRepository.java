@@ -0,0 +1,7 @@
+package com.marizoo.owner.repository;
+
+import com.marizoo.owner.entity.Badge;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BadgeRepository extends JpaRepository<Badge, Long> {
+}
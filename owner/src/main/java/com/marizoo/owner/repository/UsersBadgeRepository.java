@@ -1,55 +1,55 @@
 package com.marizoo.owner.repository;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * users_badge 쓰기 전용.
+ * (user_id, badge_id)에 unique 제약이 있으므로 모두 insert ignore로 넣어 이미 가진 배지는 건너뛴다.
+ * 같은 요청을 다시 보내거나 일부만 성공한 요청을 재시도해도 안전하다.
+ */
 @Repository
 @RequiredArgsConstructor
 public class UsersBadgeRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    private int batchSize = 10000;
-
-    public int bulkAddBadge(List<Long> userIdList, Long badgeId) {
-        int batchCount = 0;
-        List<Long> subItems = new ArrayList<>();
-        for (int i = 0; i < userIdList.size(); i++) {
-            subItems.add(userIdList.get(i));
-            if ((i + 1) % batchSize == 0) {
-                batchCount = batchInsert(batchCount, subItems, badgeId);
-            }
-        }
-        if (!subItems.isEmpty()) {
-            batchCount = batchInsert(batchCount, subItems, badgeId);
+    // 행 수 → multi-row insert 문. 꽉 찬 chunk와 마지막 chunk 크기 정도만 쌓인다
+    private final Map<Integer, String> multiRowSql = new ConcurrentHashMap<>();
+
+    /**
+     * 여러 유저에게 같은 배지를 multi-row insert 한 번으로 준다.
+     * @param userIds : 유저 PK 버퍼
+     * @param length : 버퍼에서 사용할 앞쪽 길이
+     * @return 새로 받은 유저 수
+     */
+    public int bulkAddBadge(long badgeId, long[] userIds, int length) {
+        if (length == 0) {
+            return 0;
         }
-
-        return batchCount;
-    }
-
-    private int batchInsert(int batchCount, List<Long> subItems, Long badgeId) {
-        jdbcTemplate.batchUpdate("insert into users_badge (`user_id`, `badge_id`) values (?, ?)", new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                ps.setLong(1, subItems.get(i));
-                ps.setLong(2, badgeId);
+        String sql = multiRowSql.computeIfAbsent(length, UsersBadgeRepository::createMultiRowSql);
+        return jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (int i = 0; i < length; i++) {
+                ps.setLong(index++, userIds[i]);
+                ps.setLong(index++, badgeId);
             }
+        });
+    }
 
-            @Override
-            public int getBatchSize() {
-                return subItems.size();
+    private static String createMultiRowSql(int rows) {
+        StringBuilder sql = new StringBuilder(48 + rows * 7)
+                .append("insert ignore into users_badge (`user_id`, `badge_id`) values ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
             }
-        });
-        subItems.clear();
-        batchCount++;
-        return batchCount;
+            sql.append("(?,?)");
+        }
+        return sql.toString();
     }
 }
-
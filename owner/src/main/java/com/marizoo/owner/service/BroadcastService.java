@@ -26,7 +26,6 @@ public class BroadcastService {
     private final FeedRepository feedRepository;
     private final VoteRepository voteRepository;
     private final AnimalRepository animalRepository;
-    private final UsersBadgeRepository usersBadgeRepository;
 
     @Autowired
     private AwsS3Uploader s3Uploader;
@@ -111,10 +110,4 @@ public class BroadcastService {
         broadcastRepository.save(broadcast);
         return broadcast.getId();
     }
-
-
-    @Transactional
-    public void bulkAddBadge(List<Long> userIdList, Long badgeId) {
-        usersBadgeRepository.bulkAddBadge(userIdList, badgeId);
-    }
 }
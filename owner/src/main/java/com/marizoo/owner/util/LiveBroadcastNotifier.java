@@ -0,0 +1,67 @@
+package com.marizoo.owner.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * 방송 시작/종료를 user 서비스의 모든 인스턴스에 알린다.
+ * user 서비스는 인스턴스마다 onair 방송 목록을 메모리에 들고 있으므로 로드밸런싱 없이 전체에 보낸다.
+ * 알림이 실패해도 user 서비스가 주기적으로 DB와 동기화하므로 로그만 남긴다.
+ * user 서비스는 내부 토큰(internal.token)이 맞는 요청만 받으므로 두 서비스에 같은 값을 설정해야 한다.
+ */
+@Slf4j
+@Component
+public class LiveBroadcastNotifier {
+
+    private static final String LIVE_BROADCAST_PATH = "/api/user/live-broadcasts/";
+    private static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    private final DiscoveryClient discoveryClient;
+    private final RestTemplate restTemplate;
+
+    @Value("${USER_SERVICE_ID:user}")
+    private String userServiceId;
+
+    @Value("${internal.token:}")
+    private String internalToken;
+
+    public LiveBroadcastNotifier(DiscoveryClient discoveryClient, RestTemplateBuilder restTemplateBuilder) {
+        this.discoveryClient = discoveryClient;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(1))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    public void broadcastStarted(Long broadcastId) {
+        notifyAll(HttpMethod.POST, broadcastId);
+    }
+
+    public void broadcastEnded(Long broadcastId) {
+        notifyAll(HttpMethod.DELETE, broadcastId);
+    }
+
+    private void notifyAll(HttpMethod method, Long broadcastId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(INTERNAL_TOKEN_HEADER, internalToken);
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        for (ServiceInstance instance : discoveryClient.getInstances(userServiceId)) {
+            try {
+                restTemplate.exchange(instance.getUri() + LIVE_BROADCAST_PATH + broadcastId, method, request, Void.class);
+            } catch (Exception e) {
+                log.warn("방송 알림 실패, instance = {}, broadcastId = {}, method = {}, message = {}",
+                        instance.getUri(), broadcastId, method, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.marizoo.owner.entity;
+
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.MySQL8Dialect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import javax.persistence.Entity;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * EntityManagerFactory를 만들 때와 같은 naming 전략으로 엔티티 매핑만 빌드해 본다. (DB 연결 없이)
+ * 인덱스/유니크 제약의 컬럼 이름이 틀리면 여기서 AnnotationException이 난다.
+ */
+class EntityMappingTest {
+
+    @Test
+    public void entityMappingBuilds() throws Exception {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, MySQL8Dialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+            for (BeanDefinition entity : scanner.findCandidateComponents("com.marizoo.owner.entity")) {
+                sources.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+            }
+
+            assertThatCode(() -> sources.getMetadataBuilder()
+                    .applyImplicitNamingStrategy(new SpringImplicitNamingStrategy())
+                    .applyPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                    .build())
+                    .doesNotThrowAnyException();
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.marizoo.user.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인 한 번의 BCrypt 비교 비용.
+ * 스레드 1개로 재므로 결과(ops/s)가 곧 코어 하나당 초당 로그인 수다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "marizoo1234!";
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHashExecutor executor;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        executor = new PasswordHashExecutor(encoder, new SimpleMeterRegistry(), 1, 64, 60_000);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    // 톰캣 스레드에서 직접 비교
+    @Benchmark
+    public boolean direct() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+
+    // 전용 실행기를 거친 비교 (스레드 전달 비용 포함)
+    @Benchmark
+    public boolean executor() {
+        return executor.matches(PASSWORD, encoded);
+    }
+}
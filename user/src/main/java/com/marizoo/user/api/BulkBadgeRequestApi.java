@@ -1,14 +0,0 @@
-package com.marizoo.user.api;
-
-import lombok.Getter;
-import lombok.Setter;
-
-import java.util.List;
-
-@Getter
-@Setter
-public class BulkBadgeRequestApi {
-
-    private List<Long> userIdList;
-    private Long badgeId;
-}
@@ -0,0 +1,18 @@
+package com.marizoo.user.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * keyset 페이지 응답. 전체 개수는 세지 않으며, nextCursor가 null이면 마지막 페이지다.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPageApi<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
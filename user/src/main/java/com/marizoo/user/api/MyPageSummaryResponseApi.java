@@ -0,0 +1,25 @@
+package com.marizoo.user.api;
+
+import com.marizoo.user.dto.BadgeDto;
+import com.marizoo.user.dto.BookDto;
+import com.marizoo.user.dto.FavorStoreDto;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    마이페이지 한 번에 보여줄 정보.
+    제한 시간 안에 가져오지 못한 항목은 null이고 unavailable에 이름이 들어간다. (개별 API로 다시 요청)
+ */
+@Getter
+@Setter
+public class MyPageSummaryResponseApi {
+
+    private String nickname;
+    private List<BadgeDto> badges;
+    private List<BookDto> books;
+    private List<FavorStoreDto> stores;
+    private List<String> unavailable = new ArrayList<>();
+}
@@ -0,0 +1,11 @@
+package com.marizoo.user.api.broadcast_api;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class VoteOpenRequestApi {
+    private String title;
+    private List<Long> feedIdList;
+}
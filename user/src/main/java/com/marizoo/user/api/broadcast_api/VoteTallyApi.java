@@ -0,0 +1,16 @@
+package com.marizoo.user.api.broadcast_api;
+
+import com.marizoo.user.dto.broadcast_dto.FeedTallyDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class VoteTallyApi {
+    private Long broadcastId;
+    private String title;
+    private Long total;
+    private List<FeedTallyDto> feeds;
+}
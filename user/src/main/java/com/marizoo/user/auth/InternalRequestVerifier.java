@@ -0,0 +1,40 @@
+package com.marizoo.user.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 서비스 간 내부 요청(owner → user 방송 시작/종료 알림 등) 확인.
+ * 두 서비스가 같은 비밀값(internal.token)을 설정하고, 호출하는 쪽이 INTERNAL_TOKEN_HEADER에 담아 보낸다.
+ * 비밀값이 설정되지 않았으면 모든 내부 요청을 거절한다.
+ */
+@Slf4j
+@Component
+public class InternalRequestVerifier {
+
+    public static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    private final byte[] token;
+
+    public InternalRequestVerifier(@Value("${internal.token:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        if (token.isBlank()) {
+            log.warn("internal.token이 설정되지 않아 내부 요청을 모두 거절합니다.");
+        }
+    }
+
+    /**
+     * @param token : 요청 헤더의 값
+     * @return 설정한 비밀값과 같은지
+     */
+    public boolean verify(String token) {
+        if (this.token.length == 0 || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(this.token, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package com.marizoo.user.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.marizoo.user.entity.User;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static com.marizoo.user.constant.JwtConstant.*;
+
+/**
+ * 토큰 발급 / 검증. Algorithm과 JWTVerifier는 불변이라 요청마다 만들지 않고 하나를 공유한다.
+ */
+public final class JwtProvider {
+
+    public static final String CLAIM_ID = "id";
+    public static final String CLAIM_UID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NICKNAME = "nickname";
+    // 리프레시 토큰 family id
+    public static final String CLAIM_FAMILY = "fid";
+
+    private static final Algorithm ALGORITHM = Algorithm.HMAC512(JWT_SECRET);
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
+
+    private JwtProvider() {
+    }
+
+    /**
+     * PrincipalDetails를 DB 조회 없이 만들 수 있도록 id, uid, role, nickname을 claim으로 담는다.
+     * jti는 로그아웃 시 토큰 폐기에 쓴다.
+     */
+    public static String createAccessToken(User user) {
+        return JWT.create()
+                .withSubject(user.getUid())
+                .withExpiresAt(new Date(System.currentTimeMillis() + AT_EXP_TIME))
+                .withIssuedAt(new Date(System.currentTimeMillis()))
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(CLAIM_ID, user.getId())
+                .withClaim(CLAIM_UID, user.getUid())
+                .withClaim(CLAIM_ROLE, user.getRole())
+                .withClaim(CLAIM_NICKNAME, user.getNickname())
+                .sign(ALGORITHM);
+    }
+
+    /**
+     * 같은 family 안에서도 토큰마다 해시가 달라지도록 jti를 넣는다.
+     */
+    public static String createRefreshToken(String uid, String familyId) {
+        return JWT.create()
+                .withSubject(uid)
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(CLAIM_FAMILY, familyId)
+                .withExpiresAt(new Date(System.currentTimeMillis() + RT_EXP_TIME))
+                .withIssuedAt(new Date(System.currentTimeMillis()))
+                .sign(ALGORITHM);
+    }
+
+    /**
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException 서명이 틀리거나 만료된 경우
+     */
+    public static DecodedJWT verify(String token) {
+        return VERIFIER.verify(token);
+    }
+}
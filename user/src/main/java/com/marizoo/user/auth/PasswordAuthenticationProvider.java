@@ -0,0 +1,87 @@
+package com.marizoo.user.auth;
+
+import com.marizoo.user.entity.User;
+import com.marizoo.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 아이디 / 비밀번호 로그인.
+ * 유저는 한 번만 조회하고, BCrypt 비교는 PasswordHashExecutor에서 한다.
+ * 저장된 해시의 cost가 설정값(auth.bcrypt.strength)보다 낮으면 로그인에 성공한 김에 다시 해시해 저장한다.
+ * 없는 아이디도 더미 해시와 비교한 뒤 같은 BadCredentialsException을 던져서, 메시지와 응답 시간으로 가입 여부를 알 수 없게 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String BAD_CREDENTIALS = "아이디 또는 비밀번호가 일치하지 않습니다.";
+
+    private final PrincipalDetailsService principalDetailsService;
+    private final PasswordHashExecutor passwordHashExecutor;
+    private final UserRepository userRepository;
+
+    // 없는 아이디일 때 비교할 해시. 현재 cost로 한 번만 만든다
+    private volatile String dummyHash;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String uid = authentication.getName();
+        String rawPassword = authentication.getCredentials() == null ? "" : authentication.getCredentials().toString();
+
+        PrincipalDetails principalDetails;
+        try {
+            principalDetails = (PrincipalDetails) principalDetailsService.loadUserByUsername(uid);
+        } catch (UsernameNotFoundException e) {
+            passwordHashExecutor.matches(rawPassword, dummyHash());
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        User user = principalDetails.getUser();
+        if (user.getPwd() == null) {
+            passwordHashExecutor.matches(rawPassword, dummyHash());
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        if (!passwordHashExecutor.matches(rawPassword, user.getPwd())) {
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+
+        if (passwordHashExecutor.upgradeEncoding(user.getPwd())) {
+            rehash(user, rawPassword);
+        }
+
+        return new UsernamePasswordAuthenticationToken(principalDetails, null, principalDetails.getAuthorities());
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordHashExecutor.encode("userNotFoundPassword");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private void rehash(User user, String rawPassword) {
+        try {
+            String encoded = passwordHashExecutor.encode(rawPassword);
+            userRepository.updatePwd(user.getId(), encoded);
+            user.setPwd(encoded);
+        } catch (RuntimeException e) {
+            // 다시 해시하지 못해도 로그인은 성공시킨다. 다음 로그인에서 다시 시도한다.
+            log.warn("비밀번호 재해시 실패, userId = {}, message = {}", user.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.marizoo.user.auth;
+
+import com.marizoo.user.exception.PasswordHashOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt 전용 실행기.
+ * BCrypt는 요청 하나에 수십 ms의 CPU를 쓰므로 톰캣 스레드에서 제한 없이 돌리면 로그인이 몰릴 때 다른 요청까지 굶는다.
+ * 동시에 해시하는 수를 스레드 수로 제한하고, 대기열이 가득 차면 기다리지 않고 바로 거절한다.
+ */
+@Slf4j
+@Component
+public class PasswordHashExecutor {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Counter rejectedCounter;
+
+    public PasswordHashExecutor(BCryptPasswordEncoder encoder,
+                                MeterRegistry meterRegistry,
+                                @Value("${auth.bcrypt.threads:0}") int threads,
+                                @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                                @Value("${auth.bcrypt.timeout-ms:5000}") long timeoutMillis) {
+        this.encoder = encoder;
+        this.timeoutMillis = timeoutMillis;
+
+        // 0이면 코어 수
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("auth.bcrypt.queue", executor, e -> e.getQueue().size());
+        this.rejectedCounter = Counter.builder("auth.bcrypt.rejected").register(meterRegistry);
+    }
+
+    /**
+     * @param rawPassword : 입력한 비밀번호
+     * @param encodedPassword : 저장된 해시
+     * @return 일치하는지
+     * @throws PasswordHashOverloadedException 대기열이 가득 찼거나 제한 시간 안에 끝나지 않은 경우
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @param rawPassword : 비밀번호
+     * @return 현재 설정된 cost로 만든 해시
+     */
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * @return 저장된 해시의 cost가 현재 설정보다 낮아 다시 해시해야 하는지
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashOverloadedException("로그인 요청이 많습니다. 잠시 후 다시 시도해주세요.", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashOverloadedException("로그인 요청이 많습니다. 잠시 후 다시 시도해주세요.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashOverloadedException("로그인 처리가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("비밀번호 해시 실패", e.getCause());
+        }
+    }
+}
@@ -19,6 +19,18 @@ public class PrincipalDetails implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * 토큰 claim이나 캐시된 스냅샷으로 만드는 PrincipalDetails. 비밀번호 등 나머지 필드는 비어 있다.
+     */
+    public static PrincipalDetails of(UserSnapshot snapshot) {
+        User user = new User();
+        user.setId(snapshot.getId());
+        user.setUid(snapshot.getUid());
+        user.setRole(snapshot.getRole());
+        user.setNickname(snapshot.getNickname());
+        return new PrincipalDetails(user);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
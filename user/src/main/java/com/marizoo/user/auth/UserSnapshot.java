@@ -0,0 +1,21 @@
+package com.marizoo.user.auth;
+
+import com.marizoo.user.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 인가에 필요한 유저 정보만 담은 불변 객체
+ */
+@Getter
+@AllArgsConstructor
+public class UserSnapshot {
+    private final Long id;
+    private final String uid;
+    private final String role;
+    private final String nickname;
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUid(), user.getRole(), user.getNickname());
+    }
+}
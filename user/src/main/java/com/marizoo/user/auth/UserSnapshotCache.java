@@ -0,0 +1,100 @@
+package com.marizoo.user.auth;
+
+import com.marizoo.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * uid → 유저 스냅샷 캐시 (크기 제한 + TTL).
+ * 켜져 있으면 인가 필터가 토큰 claim 대신 이 스냅샷으로 PrincipalDetails를 만든다.
+ * 탈퇴한 유저의 토큰을 거절하고 바뀐 닉네임/권한을 반영하기 위한 것으로,
+ * 비밀번호 변경, 회원 탈퇴, 로그아웃, 정보 수정 시 바로 지운다.
+ */
+@Slf4j
+@Component
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             @Value("${auth.user-cache.enabled:false}") boolean enabled,
+                             @Value("${auth.user-cache.max-size:10000}") int maxSize,
+                             @Value("${auth.user-cache.ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param uid : 유저 아이디
+     * @return 유저 스냅샷. 캐시에 없거나 만료되었으면 DB에서 읽는다. 유저가 없으면 null
+     */
+    public UserSnapshot get(String uid) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(uid);
+        if (entry != null && entry.expireAt > now) {
+            return entry.snapshot;
+        }
+
+        UserSnapshot snapshot = load(uid);
+        if (snapshot == null) {
+            entries.remove(uid);
+            return null;
+        }
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        entries.put(uid, new Entry(snapshot, now + ttlMillis));
+        return snapshot;
+    }
+
+    /**
+     * @param uid : 정보가 바뀐 유저 아이디
+     */
+    public void evict(String uid) {
+        if (uid != null) {
+            entries.remove(uid);
+        }
+    }
+
+    private UserSnapshot load(String uid) {
+        return userRepository.findByUid(uid).map(UserSnapshot::of).orElse(null);
+    }
+
+    /**
+     * 만료된 항목을 지우고, 그래도 가득 차 있으면 임의의 항목을 지워 자리를 만든다.
+     */
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expireAt <= now);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final UserSnapshot snapshot;
+        private final long expireAt;
+
+        private Entry(UserSnapshot snapshot, long expireAt) {
+            this.snapshot = snapshot;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
+import com.marizoo.user.util.NgramIndex;
+
+import java.util.*;
+
+/**
+ * 종(classification) → 그 종이 출연하는 onair 방송 역색인.
+ * 스냅샷과 함께 만들어지는 불변 객체이며, 방송은 스냅샷 목록(최신 시작 순)의 위치로 들고 있다.
+ * 종 이름 부분 검색은 종 이름에 대한 n-gram 색인으로 한다.
+ */
+final class ClassificationIndex {
+
+    private final List<LiveBroadcastDto> broadcasts;
+    private final Map<String, int[]> postings;
+    // n-gram 색인의 문서 번호 → 종
+    private final List<String> classifications;
+    private final NgramIndex classificationNgrams;
+
+    /**
+     * @param broadcasts : 최신 시작 순으로 정렬된 방송 목록
+     */
+    ClassificationIndex(List<LiveBroadcastDto> broadcasts) {
+        this.broadcasts = broadcasts;
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < broadcasts.size(); i++) {
+            for (String classification : classificationsOf(broadcasts.get(i))) {
+                positions.computeIfAbsent(classification, c -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(positions.size() * 2);
+        positions.forEach((classification, list) ->
+                postings.put(classification, list.stream().mapToInt(Integer::intValue).toArray()));
+        this.postings = postings;
+        this.classifications = new ArrayList<>(postings.keySet());
+        this.classificationNgrams = new NgramIndex(this.classifications);
+    }
+
+    /**
+     * @param keyword : 종 검색어
+     * @return 이름에 keyword가 포함된 종이 출연하는 방송 목록. 최신 시작 순
+     */
+    List<LiveBroadcastDto> search(String keyword) {
+        int[] matched = classificationNgrams.search(keyword);
+        if (matched.length == 1) {
+            return toBroadcasts(postings.get(classifications.get(matched[0])));
+        }
+
+        Set<Integer> positions = new TreeSet<>();
+        for (int doc : matched) {
+            for (int position : postings.get(classifications.get(doc))) {
+                positions.add(position);
+            }
+        }
+        return toBroadcasts(positions.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private List<LiveBroadcastDto> toBroadcasts(int[] positions) {
+        List<LiveBroadcastDto> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(broadcasts.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * @param broadcast : 기준 방송
+     * @return broadcast와 종을 공유하는 다른 방송 목록. 공유하는 종이 많은 순, 같으면 최신 시작 순
+     */
+    List<LiveBroadcastDto> related(LiveBroadcastDto broadcast) {
+        int[] shared = new int[broadcasts.size()];
+        List<Integer> matched = new ArrayList<>();
+        for (String classification : classificationsOf(broadcast)) {
+            for (int position : postings.getOrDefault(classification, new int[0])) {
+                if (shared[position]++ == 0) {
+                    matched.add(position);
+                }
+            }
+        }
+
+        matched.sort(Comparator.<Integer>comparingInt(position -> shared[position]).reversed()
+                .thenComparingInt(position -> position));
+
+        List<LiveBroadcastDto> result = new ArrayList<>(matched.size());
+        for (int position : matched) {
+            LiveBroadcastDto candidate = broadcasts.get(position);
+            if (!candidate.getId().equals(broadcast.getId())) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> classificationsOf(LiveBroadcastDto broadcast) {
+        Set<String> classifications = new HashSet<>();
+        for (String classification : broadcast.getClassifications()) {
+            if (classification != null) {
+                classifications.add(classification);
+            }
+        }
+        return classifications;
+    }
+}
@@ -0,0 +1,227 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.util.LongHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 유저 ↔ 가게 팔로우 관계(users_animal_store)를 메모리에 들고 있는 그래프.
+ * 가게별 팔로워 id 집합과 유저별 팔로잉 가게 id 집합을 함께 들고 있어서
+ * 팔로우 여부와 팔로워 수를 행을 읽지 않고 바로 답한다.
+ *
+ * 이 인스턴스에서 팔로우하면 바로 반영하고, 다른 인스턴스에서 추가된 행은 pk 기준으로 짧은 주기마다 읽어 온다.
+ * 삭제된 행(탈퇴 등)은 주기적인 재생성 때 사라진다.
+ */
+@Slf4j
+@Component
+public class FollowGraph {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long syncOverlapIds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // null이면 아직 로딩 전
+    private Graph graph;
+    // 재생성 중에 추가된 관계. 새 그래프에도 넣어야 한다
+    private List<long[]> recording;
+    private long lastSeenId;
+
+    public FollowGraph(JdbcTemplate jdbcTemplate,
+                       @Value("${follow.graph.sync-overlap-ids:1000}") long syncOverlapIds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncOverlapIds = syncOverlapIds;
+    }
+
+    /**
+     * @return 첫 로딩이 끝났는지. false면 DB로 확인해야 한다.
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return graph != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isFollowing(long userId, long storeId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet stores = graph == null ? null : graph.followings.get(userId);
+            return stores != null && stores.contains(storeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getFollowerCount(long storeId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet users = graph == null ? null : graph.followers.get(storeId);
+            return users == null ? 0 : users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return userId가 팔로우하는 가게 id (순서 없음)
+     */
+    public long[] getFollowings(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet stores = graph == null ? null : graph.followings.get(userId);
+            return stores == null ? new long[0] : stores.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 팔로우가 커밋된 뒤 호출한다.
+     */
+    public void followed(long userId, long storeId) {
+        lock.writeLock().lock();
+        try {
+            if (graph != null) {
+                graph.add(userId, storeId);
+            }
+            if (recording != null) {
+                recording.add(new long[]{userId, storeId});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * users_animal_store를 스트리밍으로 읽어 그래프를 새로 만든다.
+     */
+    @Scheduled(fixedDelayString = "${follow.graph.rebuild-interval-ms:3600000}",
+            initialDelayString = "${follow.graph.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            recording = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Graph fresh = new Graph();
+            long maxId = scan(0, fresh);
+
+            lock.writeLock().lock();
+            try {
+                recording.forEach(follow -> fresh.add(follow[0], follow[1]));
+                graph = fresh;
+                lastSeenId = Math.max(lastSeenId, maxId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("팔로우 그래프 생성 : 관계 {}개", fresh.edges);
+        } catch (Exception e) {
+            log.error("팔로우 그래프 생성 실패", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                recording = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 다른 인스턴스에서 추가된 관계를 가져온다.
+     */
+    @Scheduled(fixedDelayString = "${follow.graph.sync-interval-ms:5000}",
+            initialDelayString = "${follow.graph.sync-interval-ms:5000}")
+    public void sync() {
+        long since;
+        lock.readLock().lock();
+        try {
+            if (graph == null) {
+                return;
+            }
+            since = lastSeenId;
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            // auto increment 값은 커밋 순서와 다를 수 있어서 앞 구간과 겹치게 읽는다 (다시 넣어도 무해)
+            Graph delta = new Graph();
+            long maxId = scan(Math.max(0, since - syncOverlapIds), delta);
+
+            lock.writeLock().lock();
+            try {
+                if (graph != null) {
+                    delta.followings.forEach((userId, stores) -> {
+                        for (long storeId : stores.toArray()) {
+                            graph.add(userId, storeId);
+                        }
+                    });
+                }
+                lastSeenId = Math.max(lastSeenId, maxId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.error("팔로우 그래프 동기화 실패", e);
+        }
+    }
+
+    /**
+     * afterId보다 큰 pk의 관계를 MySQL 스트리밍 결과로 한 행씩 넣는다.
+     * @return 읽은 가장 큰 pk
+     */
+    private long scan(long afterId, Graph target) {
+        long[] maxId = {afterId};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select users_animal_store_id, users_id, animal_store_id from users_animal_store" +
+                            " where users_animal_store_id > ? and users_id is not null and animal_store_id is not null",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, afterId);
+            return ps;
+        }, rs -> {
+            maxId[0] = Math.max(maxId[0], rs.getLong(1));
+            target.add(rs.getLong(2), rs.getLong(3));
+        });
+        return maxId[0];
+    }
+
+    private static final class Graph {
+        // 가게 id → 팔로워 유저 id
+        private final Map<Long, LongHashSet> followers = new HashMap<>();
+        // 유저 id → 팔로우하는 가게 id
+        private final Map<Long, LongHashSet> followings = new HashMap<>();
+        private long edges;
+
+        private void add(long userId, long storeId) {
+            if (followings.computeIfAbsent(userId, id -> new LongHashSet()).add(storeId)) {
+                followers.computeIfAbsent(storeId, id -> new LongHashSet()).add(userId);
+                edges++;
+            }
+        }
+    }
+}
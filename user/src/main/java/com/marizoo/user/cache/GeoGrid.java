@@ -0,0 +1,259 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 위도/경도 격자 공간 인덱스.
+ * 좌표를 cellDegrees 크기의 칸으로 나눠 칸마다 가게 배열을 들고 있고, 가게가 바뀌면 해당 칸만 새로 만든다.
+ * 반경 검색은 반경을 덮는 칸만, k-최근접 검색은 가운데 칸부터 고리(ring) 단위로 넓혀 가며 본다.
+ * 두 검색 모두 가게가 있는 칸의 경계 상자 밖은 보지 않는다. (국내 서비스이므로 경도 180도 경계는 고려하지 않음)
+ * 불변 객체이며 변경은 새 GeoGrid를 돌려준다. (바뀌지 않은 칸 배열은 공유)
+ */
+final class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final AnimalStoreDto[] EMPTY = new AnimalStoreDto[0];
+
+    private final double cellDegrees;
+    private final Map<Long, AnimalStoreDto[]> cells;
+    private final int size;
+    // 가게가 있는 칸의 경계 상자 (칸 번호). 비어 있으면 min > max
+    private final int minLat, maxLat, minLng, maxLng;
+
+    GeoGrid(double cellDegrees) {
+        this(cellDegrees, new HashMap<>(), 0);
+    }
+
+    private GeoGrid(double cellDegrees, Map<Long, AnimalStoreDto[]> cells, int size) {
+        this.cellDegrees = cellDegrees;
+        this.cells = cells;
+        this.size = size;
+
+        int minLat = Integer.MAX_VALUE, maxLat = Integer.MIN_VALUE, minLng = Integer.MAX_VALUE, maxLng = Integer.MIN_VALUE;
+        for (long key : cells.keySet()) {
+            int latIdx = (int) (key >> 32), lngIdx = (int) key;
+            minLat = Math.min(minLat, latIdx);
+            maxLat = Math.max(maxLat, latIdx);
+            minLng = Math.min(minLng, lngIdx);
+            maxLng = Math.max(maxLng, lngIdx);
+        }
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLng = minLng;
+        this.maxLng = maxLng;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param removed : 빠지거나 바뀌기 전의 가게
+     * @param added : 새로 들어오거나 바뀐 뒤의 가게
+     * @return 반영된 새 인덱스
+     */
+    GeoGrid with(Collection<AnimalStoreDto> removed, Collection<AnimalStoreDto> added) {
+        Map<Long, AnimalStoreDto[]> next = new HashMap<>(cells);
+        Map<Long, List<AnimalStoreDto>> touched = new HashMap<>();
+        int nextSize = size;
+
+        for (AnimalStoreDto store : removed) {
+            if (!hasLocation(store)) {
+                continue;
+            }
+            List<AnimalStoreDto> cell = touched.computeIfAbsent(cellOf(store), key -> copyOf(next.get(key)));
+            if (cell.removeIf(s -> s.getId().equals(store.getId()))) {
+                nextSize--;
+            }
+        }
+        for (AnimalStoreDto store : added) {
+            if (!hasLocation(store)) {
+                continue;
+            }
+            touched.computeIfAbsent(cellOf(store), key -> copyOf(next.get(key))).add(store);
+            nextSize++;
+        }
+
+        touched.forEach((key, stores) -> {
+            if (stores.isEmpty()) {
+                next.remove(key);
+            } else {
+                next.put(key, stores.toArray(EMPTY));
+            }
+        });
+        return new GeoGrid(cellDegrees, next, nextSize);
+    }
+
+    /**
+     * 반경 안의 가게를 가까운 순으로 돌려준다.
+     * @param radiusKm : 반경 (km)
+     * @param limit : 최대 개수
+     * @param filter : 추가 조건. null이면 없음
+     */
+    List<Nearby> within(double lat, double lng, double radiusKm, int limit, Predicate<AnimalStoreDto> filter) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lngSpan = Math.min(180, radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.min(89.9, Math.abs(lat) + latSpan))), 1e-6)));
+        int latFrom = Math.max(minLat, latIndex(lat - latSpan)), latTo = Math.min(maxLat, latIndex(lat + latSpan));
+        int lngFrom = Math.max(minLng, lngIndex(lng - lngSpan)), lngTo = Math.min(maxLng, lngIndex(lng + lngSpan));
+
+        PriorityQueue<Nearby> nearest = new PriorityQueue<>(Nearby.FARTHEST_FIRST);
+        for (int latIdx = latFrom; latIdx <= latTo; latIdx++) {
+            for (int lngIdx = lngFrom; lngIdx <= lngTo; lngIdx++) {
+                collect(cells.get(key(latIdx, lngIdx)), lat, lng, radiusKm, limit, filter, nearest);
+            }
+        }
+        return sorted(nearest);
+    }
+
+    /**
+     * 가장 가까운 가게 k개를 가까운 순으로 돌려준다.
+     * 경계 상자에 닿는 고리부터 시작해, 다음 고리의 최소 거리가 지금까지 찾은 k번째 거리보다 멀어지면 멈춘다.
+     */
+    List<Nearby> nearest(double lat, double lng, int k, Predicate<AnimalStoreDto> filter) {
+        PriorityQueue<Nearby> nearest = new PriorityQueue<>(Nearby.FARTHEST_FIRST);
+        if (size == 0 || k <= 0) {
+            return new ArrayList<>();
+        }
+        int centerLat = latIndex(lat), centerLng = lngIndex(lng);
+        int firstRing = Math.max(gap(centerLat, minLat, maxLat), gap(centerLng, minLng, maxLng));
+        int lastRing = Math.max(Math.max(Math.abs(centerLat - minLat), Math.abs(centerLat - maxLat)),
+                Math.max(Math.abs(centerLng - minLng), Math.abs(centerLng - maxLng)));
+
+        for (int ring = firstRing; ring <= lastRing; ring++) {
+            if (nearest.size() == k && ringLowerBoundKm(lat, ring) > nearest.peek().distanceKm) {
+                break;
+            }
+            int latFrom = Math.max(minLat, centerLat - ring), latTo = Math.min(maxLat, centerLat + ring);
+            for (int latIdx = latFrom; latIdx <= latTo; latIdx++) {
+                // 위도 차이만으로도 k번째보다 먼 줄은 건너뛴다
+                if (nearest.size() == k && rowLowerBoundKm(centerLat, latIdx) > nearest.peek().distanceKm) {
+                    continue;
+                }
+                if (latIdx == centerLat - ring || latIdx == centerLat + ring) {
+                    // 고리의 위/아래 변
+                    int lngFrom = Math.max(minLng, centerLng - ring), lngTo = Math.min(maxLng, centerLng + ring);
+                    for (int lngIdx = lngFrom; lngIdx <= lngTo; lngIdx++) {
+                        collect(cells.get(key(latIdx, lngIdx)), lat, lng, Double.MAX_VALUE, k, filter, nearest);
+                    }
+                } else {
+                    // 고리의 왼쪽/오른쪽 변
+                    collect(cells.get(key(latIdx, centerLng - ring)), lat, lng, Double.MAX_VALUE, k, filter, nearest);
+                    collect(cells.get(key(latIdx, centerLng + ring)), lat, lng, Double.MAX_VALUE, k, filter, nearest);
+                }
+            }
+        }
+        return sorted(nearest);
+    }
+
+    /**
+     * @return 두 좌표 사이 거리 (km, haversine)
+     */
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    static boolean hasLocation(AnimalStoreDto store) {
+        return store.getLat() != null && store.getLng() != null;
+    }
+
+    /**
+     * ring번째 고리에 있는 가게까지의 최소 거리.
+     * 고리의 칸은 기준 칸과 위도 또는 경도로 (ring-1)칸 이상 떨어져 있다.
+     */
+    private double ringLowerBoundKm(double lat, int ring) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double gapDegrees = (ring - 1) * cellDegrees;
+        double latGapKm = gapDegrees * KM_PER_DEGREE;
+        // 경도 차이가 같으면 고위도일수록 가까우므로 고리 안에서 가장 고위도 기준으로 계산
+        double widestLat = Math.min(90, Math.abs(lat) + (ring + 1) * cellDegrees);
+        double lngGapKm = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1,
+                Math.cos(Math.toRadians(widestLat)) * Math.sin(Math.toRadians(Math.min(180, gapDegrees)) / 2)));
+        return Math.min(latGapKm, lngGapKm);
+    }
+
+    /**
+     * latIdx 줄에 있는 가게까지의 최소 거리 (위도 차이만 고려)
+     */
+    private double rowLowerBoundKm(int centerLat, int latIdx) {
+        return Math.max(0, Math.abs(latIdx - centerLat) - 1) * cellDegrees * KM_PER_DEGREE;
+    }
+
+    /**
+     * @return idx에서 [min, max] 구간까지 칸 수. 구간 안이면 0
+     */
+    private static int gap(int idx, int min, int max) {
+        return idx < min ? min - idx : idx > max ? idx - max : 0;
+    }
+
+    private static void collect(AnimalStoreDto[] cell, double lat, double lng, double radiusKm, int limit,
+                                Predicate<AnimalStoreDto> filter, PriorityQueue<Nearby> nearest) {
+        if (cell == null) {
+            return;
+        }
+        for (AnimalStoreDto store : cell) {
+            double distance = distanceKm(lat, lng, store.getLat(), store.getLng());
+            if (distance > radiusKm || (nearest.size() == limit && distance >= nearest.peek().distanceKm)) {
+                continue;
+            }
+            if (filter != null && !filter.test(store)) {
+                continue;
+            }
+            nearest.add(new Nearby(store, distance));
+            if (nearest.size() > limit) {
+                nearest.poll();
+            }
+        }
+    }
+
+    private static List<Nearby> sorted(PriorityQueue<Nearby> nearest) {
+        List<Nearby> result = new ArrayList<>(nearest);
+        result.sort(Nearby.FARTHEST_FIRST.reversed());
+        return result;
+    }
+
+    private static List<AnimalStoreDto> copyOf(AnimalStoreDto[] cell) {
+        return cell == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(cell));
+    }
+
+    private long cellOf(AnimalStoreDto store) {
+        return key(latIndex(store.getLat()), lngIndex(store.getLng()));
+    }
+
+    private int latIndex(double lat) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+    }
+
+    private int lngIndex(double lng) {
+        return (int) Math.floor((Math.max(-180, Math.min(180, lng)) + 180) / cellDegrees);
+    }
+
+    private static long key(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+
+    /**
+     * 검색 결과 한 건
+     */
+    static final class Nearby {
+        static final Comparator<Nearby> FARTHEST_FIRST =
+                Comparator.comparingDouble((Nearby n) -> n.distanceKm).thenComparing(n -> n.store.getId()).reversed();
+
+        final AnimalStoreDto store;
+        final double distanceKm;
+
+        Nearby(AnimalStoreDto store, double distanceKm) {
+            this.store = store;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
+import lombok.Getter;
+
+/**
+ * onair 방송 목록 변경 이벤트. 레지스트리가 스냅샷을 바꿀 때마다 변경 순서대로 발행한다.
+ */
+@Getter
+public class LiveBroadcastChangeEvent {
+
+    public enum Type {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final Type type;
+    private final Long broadcastId;
+    // REMOVED면 null
+    private final LiveBroadcastDto broadcast;
+    // 변경이 반영된 스냅샷
+    private final LiveBroadcastSnapshot snapshot;
+
+    private LiveBroadcastChangeEvent(Type type, Long broadcastId, LiveBroadcastDto broadcast, LiveBroadcastSnapshot snapshot) {
+        this.type = type;
+        this.broadcastId = broadcastId;
+        this.broadcast = broadcast;
+        this.snapshot = snapshot;
+    }
+
+    public static LiveBroadcastChangeEvent added(LiveBroadcastDto broadcast, LiveBroadcastSnapshot snapshot) {
+        return new LiveBroadcastChangeEvent(Type.ADDED, broadcast.getId(), broadcast, snapshot);
+    }
+
+    public static LiveBroadcastChangeEvent updated(LiveBroadcastDto broadcast, LiveBroadcastSnapshot snapshot) {
+        return new LiveBroadcastChangeEvent(Type.UPDATED, broadcast.getId(), broadcast, snapshot);
+    }
+
+    public static LiveBroadcastChangeEvent removed(Long broadcastId, LiveBroadcastSnapshot snapshot) {
+        return new LiveBroadcastChangeEvent(Type.REMOVED, broadcastId, null, snapshot);
+    }
+}
@@ -0,0 +1,128 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
+import com.marizoo.user.repository.broadcast_repo.BroadcastRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 현재 방송 중인 방송 목록을 메모리에 들고 있는 레지스트리.
+ * 읽기는 DB 없이 스냅샷만 보고, 쓰기는 방송 시작/종료 알림으로 갱신하며
+ * 알림이 유실되는 경우를 대비해 주기적으로 DB와 맞춘다.
+ * 스냅샷이 바뀔 때마다 LiveBroadcastChangeEvent를 발행한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveBroadcastRegistry {
+
+    private final BroadcastRepository broadcastRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile LiveBroadcastSnapshot snapshot = LiveBroadcastSnapshot.EMPTY;
+    private volatile boolean loaded = false;
+
+    public LiveBroadcastSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return 첫 DB 동기화가 끝났는지. false면 스냅샷이 비어 있을 수 있으므로 DB를 조회해야 한다.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 방송 시작 알림. DB에서 onair 상태인 경우에만 반영한다.
+     * @param broadcastId : 시작된 방송 pk
+     */
+    public synchronized void broadcastStarted(Long broadcastId) {
+        List<LiveBroadcastDto> started = broadcastRepository.findLiveBroadcasts(List.of(broadcastId));
+        if (started.isEmpty()) {
+            log.info("방송 시작 알림을 받았지만 onair 상태가 아님, broadcastId = {}", broadcastId);
+            remove(broadcastId);
+            return;
+        }
+
+        LiveBroadcastDto broadcast = started.get(0);
+        LiveBroadcastDto previous = snapshot.get(broadcastId);
+        if (broadcast.equals(previous)) {
+            return;
+        }
+        snapshot = snapshot.with(broadcast);
+        eventPublisher.publishEvent(previous == null
+                ? LiveBroadcastChangeEvent.added(broadcast, snapshot)
+                : LiveBroadcastChangeEvent.updated(broadcast, snapshot));
+    }
+
+    /**
+     * 방송 종료 알림. DB에서 아직 onair 상태면 반영하지 않는다.
+     * @param broadcastId : 종료된 방송 pk
+     * @return DB에서도 종료된 방송이라 반영했는지
+     */
+    public synchronized boolean broadcastEnded(Long broadcastId) {
+        if (!broadcastRepository.findLiveBroadcasts(List.of(broadcastId)).isEmpty()) {
+            log.info("방송 종료 알림을 받았지만 아직 onair 상태, broadcastId = {}", broadcastId);
+            return false;
+        }
+        remove(broadcastId);
+        return true;
+    }
+
+    private void remove(Long broadcastId) {
+        LiveBroadcastSnapshot next = snapshot.without(broadcastId);
+        if (next == snapshot) {
+            return;
+        }
+        snapshot = next;
+        eventPublisher.publishEvent(LiveBroadcastChangeEvent.removed(broadcastId, snapshot));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reconcile();
+    }
+
+    /**
+     * 알림 유실 대비 DB 전체 동기화
+     */
+    @Scheduled(fixedDelayString = "${live.registry.reconcile-interval-ms:30000}",
+            initialDelayString = "${live.registry.reconcile-interval-ms:30000}")
+    public synchronized void reconcile() {
+        try {
+            LiveBroadcastSnapshot previous = snapshot;
+            snapshot = LiveBroadcastSnapshot.of(broadcastRepository.findLiveBroadcasts(null));
+            loaded = true;
+            publishDiff(previous, snapshot);
+        } catch (Exception e) {
+            log.error("onair 방송 목록 동기화 실패", e);
+        }
+    }
+
+    private void publishDiff(LiveBroadcastSnapshot previous, LiveBroadcastSnapshot current) {
+        List<LiveBroadcastChangeEvent> events = new ArrayList<>();
+        for (LiveBroadcastDto before : previous.getBroadcasts()) {
+            if (current.get(before.getId()) == null) {
+                events.add(LiveBroadcastChangeEvent.removed(before.getId(), current));
+            }
+        }
+        for (LiveBroadcastDto after : current.getBroadcasts()) {
+            LiveBroadcastDto before = previous.get(after.getId());
+            if (before == null) {
+                events.add(LiveBroadcastChangeEvent.added(after, current));
+            } else if (!before.equals(after)) {
+                events.add(LiveBroadcastChangeEvent.updated(after, current));
+            }
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,136 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
+import com.marizoo.user.util.CursorToken;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * onair 방송 목록의 불변 스냅샷.
+ * 방송 시작/종료 시 기존 스냅샷을 복사해 새 스냅샷을 만들고(copy-on-write), 읽기는 락 없이 한다.
+ */
+public final class LiveBroadcastSnapshot {
+
+    private static final Comparator<LiveBroadcastDto> LATEST_FIRST =
+            Comparator.comparing(LiveBroadcastDto::getStartTime, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(LiveBroadcastDto::getId, Comparator.reverseOrder());
+
+    public static final LiveBroadcastSnapshot EMPTY = new LiveBroadcastSnapshot(new ArrayList<>());
+
+    // 최신 시작 순
+    private final List<LiveBroadcastDto> broadcasts;
+    private final Map<Long, LiveBroadcastDto> byId;
+    private final Map<Long, List<LiveBroadcastDto>> byStore;
+    private final ClassificationIndex classificationIndex;
+
+    private LiveBroadcastSnapshot(List<LiveBroadcastDto> broadcasts) {
+        broadcasts.sort(LATEST_FIRST);
+        this.broadcasts = Collections.unmodifiableList(broadcasts);
+
+        Map<Long, LiveBroadcastDto> byId = new HashMap<>();
+        Map<Long, List<LiveBroadcastDto>> byStore = new HashMap<>();
+        for (LiveBroadcastDto broadcast : this.broadcasts) {
+            byId.put(broadcast.getId(), broadcast);
+            byStore.computeIfAbsent(broadcast.getStoreId(), id -> new ArrayList<>()).add(broadcast);
+        }
+        this.byId = byId;
+        this.byStore = byStore;
+        this.classificationIndex = new ClassificationIndex(this.broadcasts);
+    }
+
+    public static LiveBroadcastSnapshot of(Collection<LiveBroadcastDto> broadcasts) {
+        return new LiveBroadcastSnapshot(new ArrayList<>(broadcasts));
+    }
+
+    /**
+     * @param broadcast : 시작된(또는 변경된) 방송
+     * @return broadcast가 추가(교체)된 새 스냅샷
+     */
+    public LiveBroadcastSnapshot with(LiveBroadcastDto broadcast) {
+        List<LiveBroadcastDto> next = new ArrayList<>(broadcasts.size() + 1);
+        for (LiveBroadcastDto live : broadcasts) {
+            if (!live.getId().equals(broadcast.getId())) {
+                next.add(live);
+            }
+        }
+        next.add(broadcast);
+        return new LiveBroadcastSnapshot(next);
+    }
+
+    /**
+     * @param broadcastId : 종료된 방송 pk
+     * @return broadcastId가 빠진 새 스냅샷. 없으면 자기 자신
+     */
+    public LiveBroadcastSnapshot without(Long broadcastId) {
+        if (!byId.containsKey(broadcastId)) {
+            return this;
+        }
+        List<LiveBroadcastDto> next = broadcasts.stream()
+                .filter(live -> !live.getId().equals(broadcastId))
+                .collect(Collectors.toCollection(ArrayList::new));
+        return new LiveBroadcastSnapshot(next);
+    }
+
+    public List<LiveBroadcastDto> getBroadcasts() {
+        return broadcasts;
+    }
+
+    /**
+     * @param after : 이전 페이지의 마지막 위치. null이면 첫 페이지
+     * @param limit : 가져올 방송 수
+     * @return 커서 다음부터 limit개의 방송. 시작 위치는 이분 탐색으로 찾는다
+     */
+    public List<LiveBroadcastDto> page(CursorToken after, int limit) {
+        int from = 0;
+        if (after != null) {
+            int hi = broadcasts.size();
+            while (from < hi) {
+                int mid = (from + hi) >>> 1;
+                if (isAfter(broadcasts.get(mid), after)) {
+                    hi = mid;
+                } else {
+                    from = mid + 1;
+                }
+            }
+        }
+        return broadcasts.subList(from, Math.min(from + limit, broadcasts.size()));
+    }
+
+    private static boolean isAfter(LiveBroadcastDto broadcast, CursorToken cursor) {
+        if (broadcast.getStartTime() == null) {
+            return true;
+        }
+        int compare = broadcast.getStartTime().compareTo(cursor.getStartTime());
+        return compare < 0 || (compare == 0 && broadcast.getId() < cursor.getId());
+    }
+
+    public LiveBroadcastDto get(Long broadcastId) {
+        return byId.get(broadcastId);
+    }
+
+    public List<LiveBroadcastDto> getStoreBroadcasts(Long storeId) {
+        return byStore.getOrDefault(storeId, Collections.emptyList());
+    }
+
+    /**
+     * @param broadcastId : 기준 방송 pk
+     * @return 기준 방송과 종을 공유하는 onair 방송 list. 공유하는 종이 많은 순. 기준 방송이 onair가 아니면 null
+     */
+    public List<LiveBroadcastDto> findRelated(Long broadcastId) {
+        LiveBroadcastDto broadcast = byId.get(broadcastId);
+        return broadcast != null ? classificationIndex.related(broadcast) : null;
+    }
+
+    /**
+     * @param keyword : 종 검색어
+     * @return classification에 keyword가 포함된 종이 출연하는 방송 list. 최신 시작 순
+     */
+    public List<LiveBroadcastDto> searchByClassification(String keyword) {
+        return classificationIndex.search(keyword);
+    }
+
+    public int size() {
+        return broadcasts.size();
+    }
+}
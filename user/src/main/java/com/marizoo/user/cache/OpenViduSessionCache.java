@@ -0,0 +1,213 @@
+package com.marizoo.user.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OpenVidu 활성 세션 캐시.
+ * 시청자 입장마다 openvidu.fetch()로 전체 세션 목록을 받아오지 않도록
+ * 주기적으로 목록을 갱신하고, 캐시에 없거나 오래된 세션만 단건 조회한다.
+ * 시청자 입장 시 OpenVidu와 통신하는 것은 커넥션 토큰 발급뿐이다.
+ */
+@Slf4j
+@Component
+public class OpenViduSessionCache {
+
+    private static final String SESSIONS_PATH = "openvidu/api/sessions";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(3);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper om;
+    private final String sessionsUrl;
+    private final String authorization;
+    private final long ttlMillis;
+
+    private volatile Map<String, CachedSession> sessions = new ConcurrentHashMap<>();
+    // 같은 세션에 대한 동시 단건 조회는 한 번만 보낸다
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer refreshTimer;
+    private final Timer lookupTimer;
+
+    public OpenViduSessionCache(@Value("${OPENVIDU_URL}") String openviduUrl,
+                                @Value("${OPENVIDU_SECRET:MY_SECRET}") String openviduSecret,
+                                @Value("${openvidu.session-cache.ttl-ms:2000}") long ttlMillis,
+                                ObjectMapper om,
+                                MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        this.om = om;
+        this.sessionsUrl = (openviduUrl.endsWith("/") ? openviduUrl : openviduUrl + "/") + SESSIONS_PATH;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(("OPENVIDUAPP:" + openviduSecret).getBytes(StandardCharsets.UTF_8));
+        this.ttlMillis = ttlMillis;
+
+        this.hitCounter = Counter.builder("openvidu.session.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("openvidu.session.cache").tag("result", "miss").register(meterRegistry);
+        this.refreshTimer = Timer.builder("openvidu.session.cache.refresh").register(meterRegistry);
+        this.lookupTimer = Timer.builder("openvidu.session.cache.lookup").register(meterRegistry);
+    }
+
+    /**
+     * 활성 세션 목록 전체 갱신
+     */
+    @Scheduled(fixedDelayString = "${openvidu.session-cache.refresh-interval-ms:1000}")
+    public void refresh() {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(sessionsUrl)).GET());
+            if (response.statusCode() != 200) {
+                log.warn("OpenVidu 세션 목록 갱신 실패, status = {}", response.statusCode());
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            Map<String, CachedSession> refreshed = new ConcurrentHashMap<>();
+            for (JsonNode session : om.readTree(response.body()).path("content")) {
+                String sessionId = session.path("id").asText();
+                refreshed.put(sessionId, new CachedSession(true, now));
+            }
+            sessions = refreshed;
+        } catch (IOException e) {
+            log.warn("OpenVidu 세션 목록 갱신 실패, message = {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            refreshTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * @param sessionId : OpenVidu 세션 id
+     * @return 세션이 활성 상태인지
+     */
+    public boolean isActive(String sessionId) {
+        CachedSession cached = sessions.get(sessionId);
+        if (cached != null && cached.isFresh(ttlMillis)) {
+            hitCounter.increment();
+            return cached.isActive();
+        }
+        missCounter.increment();
+
+        CompletableFuture<Boolean> lookup = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(sessionId, lookup);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            // 앞선 단건 조회가 막 끝났다면 그 결과를 쓴다
+            CachedSession recheck = sessions.get(sessionId);
+            if (recheck != null && recheck.isFresh(ttlMillis)) {
+                lookup.complete(recheck.isActive());
+                return recheck.isActive();
+            }
+            boolean active = fetchSession(sessionId);
+            sessions.put(sessionId, new CachedSession(active, System.currentTimeMillis()));
+            lookup.complete(active);
+            return active;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(sessionId);
+        }
+    }
+
+    /**
+     * 세션에 커넥션을 만들고 토큰을 발급한다.
+     * @param sessionId : OpenVidu 세션 id
+     * @return 커넥션 토큰. 세션이 없으면 null
+     */
+    public String createConnection(String sessionId) {
+        try {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(sessionUri(sessionId, "/connection"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{}")));
+            if (response.statusCode() == 404) {
+                sessions.put(sessionId, new CachedSession(false, System.currentTimeMillis()));
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("OpenVidu 커넥션 생성 실패, status = " + response.statusCode());
+            }
+            return om.readTree(response.body()).path("token").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("OpenVidu 커넥션 생성 실패", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("OpenVidu 커넥션 생성 중단", e);
+        }
+    }
+
+    private boolean fetchSession(String sessionId) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(sessionUri(sessionId, "")).GET());
+            if (response.statusCode() == 404) {
+                return false;
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("OpenVidu 세션 조회 실패, status = " + response.statusCode());
+            }
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException("OpenVidu 세션 조회 실패", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("OpenVidu 세션 조회 중단", e);
+        } finally {
+            lookupTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private URI sessionUri(String sessionId, String suffix) {
+        return URI.create(sessionsUrl + "/" + URLEncoder.encode(sessionId, StandardCharsets.UTF_8) + suffix);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpRequest request = builder
+                .header("Authorization", authorization)
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class CachedSession {
+        private final boolean active;
+        private final long fetchedAt;
+
+        private CachedSession(boolean active, long fetchedAt) {
+            this.active = active;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private boolean isActive() {
+            return active;
+        }
+
+        private boolean isFresh(long ttlMillis) {
+            return System.currentTimeMillis() - fetchedAt < ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.marizoo.user.cache;
+
+import java.util.*;
+
+/**
+ * 종 id → 그 종을 보유한 가게 bitmap (비트 번호 = 가게 id).
+ * 불변 객체이며, 보유 종이 바뀐 가게만 반영한 새 객체를 만든다. 바뀌지 않은 종의 bitmap은 공유한다(copy-on-write).
+ * 여러 종 조건은 bitmap OR(하나라도 보유)/AND(모두 보유)로 합친다.
+ */
+final class SpeciesPostings {
+
+    static final SpeciesPostings EMPTY = new SpeciesPostings(Collections.emptyMap(), Collections.emptyMap());
+
+    private static final long[] NONE = new long[0];
+    private static final BitSet EMPTY_BITS = new BitSet();
+
+    // 가게 id → 보유 종 id (오름차순)
+    private final Map<Long, long[]> speciesByStore;
+    // 종 id → 보유 가게 bitmap. 밖으로 내보낸 bitmap은 수정하지 않는다
+    private final Map<Long, BitSet> storesBySpecies;
+
+    private SpeciesPostings(Map<Long, long[]> speciesByStore, Map<Long, BitSet> storesBySpecies) {
+        this.speciesByStore = speciesByStore;
+        this.storesBySpecies = storesBySpecies;
+    }
+
+    /**
+     * @param changed : 보유 종이 바뀐 가게 id → 새 보유 종 id (오름차순). 빈 배열이면 보유 종이 없어진 가게
+     * @return 반영된 새 postings. 실제로 바뀐 게 없으면 자기 자신
+     */
+    SpeciesPostings with(Map<Long, long[]> changed) {
+        Map<Long, long[]> nextSpeciesByStore = null;
+        Map<Long, BitSet> nextStoresBySpecies = null;
+        // 이번에 복사한 bitmap. 같은 종을 여러 번 고쳐도 한 번만 복사한다
+        Set<Long> copied = new HashSet<>();
+
+        for (Map.Entry<Long, long[]> entry : changed.entrySet()) {
+            long storeId = entry.getKey();
+            long[] before = speciesByStore.getOrDefault(storeId, NONE);
+            long[] after = entry.getValue();
+            if (Arrays.equals(before, after)) {
+                continue;
+            }
+            if (nextSpeciesByStore == null) {
+                nextSpeciesByStore = new HashMap<>(speciesByStore);
+                nextStoresBySpecies = new HashMap<>(storesBySpecies);
+            }
+            if (after.length == 0) {
+                nextSpeciesByStore.remove(storeId);
+            } else {
+                nextSpeciesByStore.put(storeId, after);
+            }
+
+            for (long speciesId : before) {
+                if (Arrays.binarySearch(after, speciesId) < 0) {
+                    writable(nextStoresBySpecies, copied, speciesId).clear(bit(storeId));
+                }
+            }
+            for (long speciesId : after) {
+                if (Arrays.binarySearch(before, speciesId) < 0) {
+                    writable(nextStoresBySpecies, copied, speciesId).set(bit(storeId));
+                }
+            }
+        }
+        if (nextSpeciesByStore == null) {
+            return this;
+        }
+        nextStoresBySpecies.values().removeIf(BitSet::isEmpty);
+        return new SpeciesPostings(nextSpeciesByStore, nextStoresBySpecies);
+    }
+
+    private static BitSet writable(Map<Long, BitSet> storesBySpecies, Set<Long> copied, long speciesId) {
+        if (copied.add(speciesId)) {
+            BitSet original = storesBySpecies.get(speciesId);
+            storesBySpecies.put(speciesId, original == null ? new BitSet() : (BitSet) original.clone());
+        }
+        return storesBySpecies.get(speciesId);
+    }
+
+    boolean hasSpecies(long storeId, long speciesId) {
+        return storesBySpecies.getOrDefault(speciesId, EMPTY_BITS).get(bit(storeId));
+    }
+
+    /**
+     * @return speciesId를 보유한 가게 bitmap. 수정하지 않는다
+     */
+    BitSet stores(long speciesId) {
+        return storesBySpecies.getOrDefault(speciesId, EMPTY_BITS);
+    }
+
+    /**
+     * @return speciesIds 중 하나라도 보유한 가게 (OR)
+     */
+    BitSet anyOf(Collection<Long> speciesIds) {
+        BitSet result = new BitSet();
+        for (Long speciesId : speciesIds) {
+            result.or(stores(speciesId));
+        }
+        return result;
+    }
+
+    /**
+     * @return speciesIds를 모두 보유한 가게 (AND). 가장 작은 bitmap부터 줄여 나간다
+     */
+    BitSet allOf(Collection<Long> speciesIds) {
+        List<BitSet> bitmaps = new ArrayList<>();
+        for (Long speciesId : speciesIds) {
+            BitSet stores = stores(speciesId);
+            if (stores.isEmpty()) {
+                return new BitSet();
+            }
+            bitmaps.add(stores);
+        }
+        if (bitmaps.isEmpty()) {
+            return new BitSet();
+        }
+        bitmaps.sort(Comparator.comparingInt(BitSet::cardinality));
+        BitSet result = (BitSet) bitmaps.get(0).clone();
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result.and(bitmaps.get(i));
+        }
+        return result;
+    }
+
+    static int bit(long storeId) {
+        return Math.toIntExact(storeId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.marizoo.user.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marizoo.user.api.animalstore_api.AnimalStoreListResponse;
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * 가게 목록 응답(GET /stores)의 불변 스냅샷.
+ * 가게가 바뀔 때 한 번만 JSON으로 직렬화해 두고, 요청마다 같은 바이트를 그대로 내려보낸다.
+ * ETag는 내용의 해시라서 인스턴스가 여러 개여도 같은 목록이면 같은 값이다.
+ */
+public final class StoreCatalog {
+
+    private final long version;
+    private final List<AnimalStoreDto> stores;
+    private final byte[] json;
+    private final String etag;
+
+    private StoreCatalog(long version, List<AnimalStoreDto> stores, byte[] json, String etag) {
+        this.version = version;
+        this.stores = stores;
+        this.json = json;
+        this.etag = etag;
+    }
+
+    /**
+     * @param version : 만들어질 때의 스냅샷 version
+     * @param stores : 가게 요약 목록 (불변)
+     */
+    static StoreCatalog of(long version, List<AnimalStoreDto> stores, ObjectMapper om) {
+        try {
+            byte[] json = om.writeValueAsBytes(new AnimalStoreListResponse<>(stores));
+            return new StoreCatalog(version, stores, json, etagOf(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("가게 목록 직렬화 실패", e);
+        }
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            StringBuilder etag = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<AnimalStoreDto> getStores() {
+        return stores;
+    }
+
+    /**
+     * @return 직렬화된 응답 본문. 호출한 쪽에서 수정하지 않는다
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return 따옴표를 포함한 strong ETag
+     */
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,232 @@
+package com.marizoo.user.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marizoo.user.dto.animal_dto.StoreSpeciesDto;
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+import com.marizoo.user.dto.animalstore_dto.NearbyStoreDto;
+import com.marizoo.user.repository.animal_repo.AnimalRepository;
+import com.marizoo.user.repository.animalstore_repo.AnimalStoreRepository;
+import com.marizoo.user.repository.species_repo.SpeciesRepository;
+import com.marizoo.user.util.DistanceCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 가게 목록(요약, 위치, 보유 종)을 메모리에 들고 있는 레지스트리.
+ * 가게는 owner 서버에서 바뀌므로, 주기적으로 animal_store / animal / species 테이블의 변경 표시(행 수, 최대 pk, 마지막 수정 시각)만 확인하고
+ * 표시가 바뀐 경우에만 목록을 다시 읽어 바뀐 가게만 스냅샷에 반영한다.
+ * 가게 요약이 바뀌면 목록 응답(StoreCatalog)도 새로 직렬화해 둔다.
+ * 동물 배치가 바뀌면 가게별 변경 표시를 비교해 동물이 추가/삭제/이동된 가게의 보유 종만 다시 읽는다.
+ * 수정 시각을 남기지 않는 변경(벌크 update 등)이나 늦게 커밋된 변경은 표시로 잡히지 않을 수 있어, 일정 주기마다 전체를 다시 읽는다.
+ * 첫 로딩은 스케줄러 스레드에서 하고, 그 전의 요청은 DB를 직접 조회한다.
+ */
+@Slf4j
+@Component
+public class StoreRegistry {
+
+    private final AnimalStoreRepository animalStoreRepository;
+    private final AnimalRepository animalRepository;
+    private final SpeciesRepository speciesRepository;
+    private final ObjectMapper om;
+    private final long fullRefreshIntervalMillis;
+
+    // 보유 종을 다시 읽을 때 in 절에 넣는 가게 수
+    private static final int SPECIES_FETCH_CHUNK = 1000;
+
+    private volatile StoreSnapshot snapshot;
+    private volatile StoreCatalog catalog;
+    private volatile boolean loaded = false;
+    private String catalogMarker;
+    private String placementMarker;
+    private String speciesMarker;
+    // 가게 id → 그 가게 동물의 변경 표시
+    private Map<Long, String> storePlacementMarkers = Collections.emptyMap();
+    private long lastFullRefresh;
+
+    public StoreRegistry(AnimalStoreRepository animalStoreRepository,
+                         AnimalRepository animalRepository,
+                         SpeciesRepository speciesRepository,
+                         ObjectMapper om,
+                         @Value("${store.registry.cell-degrees:0.05}") double cellDegrees,
+                         @Value("${store.registry.full-refresh-interval-ms:600000}") long fullRefreshIntervalMillis) {
+        this.animalStoreRepository = animalStoreRepository;
+        this.animalRepository = animalRepository;
+        this.speciesRepository = speciesRepository;
+        this.om = om;
+        this.fullRefreshIntervalMillis = fullRefreshIntervalMillis;
+        this.snapshot = StoreSnapshot.empty(cellDegrees);
+    }
+
+    /**
+     * @return 첫 DB 동기화가 끝났는지. false면 스냅샷이 비어 있으므로 DB를 조회해야 한다.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return 현재 스냅샷. 로딩 전이면 빈 스냅샷
+     */
+    public StoreSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return 직렬화된 가게 목록 응답. 로딩 전이면 DB에서 읽어 그때만 직렬화한다
+     */
+    public StoreCatalog getCatalog() {
+        StoreCatalog current = catalog;
+        if (current == null) {
+            return StoreCatalog.of(0, animalStoreRepository.findStoreCatalog(), om);
+        }
+        return current;
+    }
+
+    /**
+     * 로딩 전 대체 경로. 종 조건에 맞는 가게를 DB에서 읽어 거리를 계산한다.
+     * 인자는 StoreSnapshot.nearby와 같다.
+     */
+    public List<NearbyStoreDto> findNearbyFromDb(double lat, double lng, Double radiusKm, int limit,
+                                                 Collection<Long> speciesIds, boolean allSpecies) {
+        List<AnimalStoreDto> stores = animalStoreRepository.findStoreCatalog(null, null, speciesIds, allSpecies);
+        return rank(stores, lat, lng, null, limit).stream()
+                .filter(nearby -> !Double.isInfinite(nearby.distanceKm) && (radiusKm == null || nearby.distanceKm <= radiusKm))
+                .map(nearby -> new NearbyStoreDto(nearby.store, nearby.distanceKm))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 로딩 전 대체 경로. 조건에 맞는 가게를 DB에서 읽어 정렬한다.
+     * 인자는 StoreSnapshot.search와 같다.
+     */
+    public List<NearbyStoreDto> searchFromDb(String keyword, String classification, Collection<Long> speciesIds, boolean allSpecies,
+                                             Double lat, Double lng, DistanceCursor after, int limit) {
+        List<AnimalStoreDto> stores = animalStoreRepository.findStoreCatalog(keyword, classification, speciesIds, allSpecies);
+        boolean located = lat != null && lng != null;
+        return rank(stores, lat, lng, after, limit).stream()
+                .map(hit -> new NearbyStoreDto(hit.store,
+                        located && !Double.isInfinite(hit.distanceKm) ? hit.distanceKm : null))
+                .collect(Collectors.toList());
+    }
+
+    private static List<GeoGrid.Nearby> rank(List<AnimalStoreDto> stores, Double lat, Double lng, DistanceCursor after, int limit) {
+        BitSet storeIds = new BitSet();
+        Map<Long, AnimalStoreDto> byId = new HashMap<>();
+        for (AnimalStoreDto store : stores) {
+            storeIds.set(SpeciesPostings.bit(store.getId()));
+            byId.put(store.getId(), store);
+        }
+        return StoreSearchIndex.rank(storeIds, byId, lat, lng, after, limit);
+    }
+
+    /**
+     * 변경 표시가 바뀐 테이블만 다시 읽어 스냅샷에 반영한다. 전체 동기화 주기가 지났으면 표시와 상관없이 다시 읽는다.
+     * 표시를 먼저 읽고 목록을 읽으므로, 그 사이의 변경은 다음 주기에 다시 잡힌다.
+     * 첫 실행이 첫 로딩이다.
+     */
+    @Scheduled(fixedDelayString = "${store.registry.refresh-interval-ms:5000}", initialDelay = 0)
+    public synchronized void refresh() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean full = !loaded || now - lastFullRefresh >= fullRefreshIntervalMillis;
+            String catalogMark = animalStoreRepository.findCatalogMarker();
+            String placementMark = animalRepository.findPlacementMarker();
+            String speciesMark = speciesRepository.findNameMarker();
+
+            StoreSnapshot next = snapshot;
+            StoreCatalog nextCatalog = catalog;
+            if (full || !catalogMark.equals(catalogMarker)) {
+                next = next.withStores(animalStoreRepository.findStoreCatalog());
+                if (nextCatalog == null || next.getStores() != snapshot.getStores()) {
+                    nextCatalog = StoreCatalog.of(next.getVersion(), next.getStores(), om);
+                }
+            }
+            Map<Long, String> storeMarks = storePlacementMarkers;
+            // 종 이름이 바뀌면 그 종을 가진 가게를 알 수 없으므로 전체를 다시 읽는다
+            boolean allSpecies = full || !speciesMark.equals(speciesMarker);
+            if (allSpecies || !placementMark.equals(placementMarker)) {
+                storeMarks = findStorePlacementMarkers();
+                next = withChangedSpecies(next, storeMarks, allSpecies);
+            }
+            if (next != snapshot) {
+                log.info("가게 목록 갱신 : version {} → {}, 가게 {}개", snapshot.getVersion(), next.getVersion(), next.size());
+                snapshot = next;
+            }
+            catalog = nextCatalog;
+            catalogMarker = catalogMark;
+            placementMarker = placementMark;
+            speciesMarker = speciesMark;
+            storePlacementMarkers = storeMarks;
+            if (full) {
+                lastFullRefresh = now;
+            }
+            loaded = true;
+        } catch (Exception e) {
+            log.error("가게 목록 동기화 실패", e);
+        }
+    }
+
+    private Map<Long, String> findStorePlacementMarkers() {
+        Map<Long, String> marks = new HashMap<>();
+        for (Object[] row : animalRepository.findStorePlacementMarkers()) {
+            marks.put(((Number) row[0]).longValue(), String.valueOf(row[1]));
+        }
+        return marks;
+    }
+
+    /**
+     * 변경 표시가 바뀐(동물이 추가/삭제/이동된) 가게와 동물이 모두 빠진 가게의 보유 종만 다시 읽어 반영한다.
+     * @param all : true면 전체 가게의 보유 종을 한 번에 다시 읽는다 (첫 로딩, 전체 동기화, 종 이름 변경)
+     */
+    private StoreSnapshot withChangedSpecies(StoreSnapshot next, Map<Long, String> storeMarks, boolean all) {
+        Set<Long> changedStores = new HashSet<>();
+        if (all) {
+            changedStores.addAll(storePlacementMarkers.keySet());
+            changedStores.addAll(storeMarks.keySet());
+        } else {
+            storeMarks.forEach((storeId, mark) -> {
+                if (!mark.equals(storePlacementMarkers.get(storeId))) {
+                    changedStores.add(storeId);
+                }
+            });
+            for (Long storeId : storePlacementMarkers.keySet()) {
+                if (!storeMarks.containsKey(storeId)) {
+                    changedStores.add(storeId);
+                }
+            }
+        }
+
+        List<StoreSpeciesDto> rows = new ArrayList<>();
+        if (all) {
+            rows.addAll(animalRepository.findStoreSpecies(null));
+        } else {
+            List<Long> storeIds = new ArrayList<>(changedStores);
+            for (int from = 0; from < storeIds.size(); from += SPECIES_FETCH_CHUNK) {
+                rows.addAll(animalRepository.findStoreSpecies(
+                        storeIds.subList(from, Math.min(from + SPECIES_FETCH_CHUNK, storeIds.size()))));
+            }
+        }
+
+        Map<Long, Set<Long>> speciesByStore = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (StoreSpeciesDto row : rows) {
+            speciesByStore.computeIfAbsent(row.getStoreId(), id -> new TreeSet<>()).add(row.getSpeciesId());
+            names.put(row.getSpeciesId(), row.getClassification());
+        }
+        Map<Long, long[]> changed = new HashMap<>();
+        for (Long storeId : changedStores) {
+            Set<Long> speciesIds = speciesByStore.getOrDefault(storeId, Collections.emptySet());
+            changed.put(storeId, speciesIds.stream().mapToLong(Long::longValue).toArray());
+        }
+        speciesByStore.forEach((storeId, speciesIds) ->
+                changed.putIfAbsent(storeId, speciesIds.stream().mapToLong(Long::longValue).toArray()));
+
+        log.info("가게 보유 종 갱신 : 가게 {}개", changed.size());
+        return next.withSpecies(changed, names);
+    }
+}
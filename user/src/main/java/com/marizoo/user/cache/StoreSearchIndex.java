@@ -0,0 +1,146 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+import com.marizoo.user.util.DistanceCursor;
+import com.marizoo.user.util.NgramIndex;
+
+import java.util.*;
+
+/**
+ * 가게 검색 색인. 스냅샷과 함께 만들어지는 불변 객체이며, 검색 결과는 가게 id bitmap으로 돌려준다.
+ * 검색어는 가게 이름과 주소의 n-gram 색인으로, 종 검색어는 종 이름의 n-gram 색인 → 종별 보유 가게 bitmap(OR)으로 찾고
+ * 둘 다 주어지면 AND 한다.
+ * 가게가 바뀌면 이름/주소 색인만, 종 이름이 바뀌면 종 이름 색인만 새로 만든다.
+ */
+final class StoreSearchIndex {
+
+    // 이름/주소 색인의 문서 번호 → 가게
+    private final List<AnimalStoreDto> stores;
+    private final NgramIndex names;
+    private final NgramIndex addresses;
+    // 종 이름 색인의 문서 번호 → 그 이름의 종 id
+    private final List<long[]> speciesIds;
+    private final NgramIndex classificationNgrams;
+
+    private StoreSearchIndex(List<AnimalStoreDto> stores, NgramIndex names, NgramIndex addresses,
+                             List<long[]> speciesIds, NgramIndex classificationNgrams) {
+        this.stores = stores;
+        this.names = names;
+        this.addresses = addresses;
+        this.speciesIds = speciesIds;
+        this.classificationNgrams = classificationNgrams;
+    }
+
+    static StoreSearchIndex empty() {
+        return new StoreSearchIndex(Collections.emptyList(), new NgramIndex(Collections.emptyList()),
+                new NgramIndex(Collections.emptyList()), Collections.emptyList(), new NgramIndex(Collections.emptyList()));
+    }
+
+    /**
+     * @param stores : 새 가게 목록
+     * @return 이름/주소 색인을 새로 만든 색인 (종 이름 색인은 공유)
+     */
+    StoreSearchIndex withStores(List<AnimalStoreDto> stores) {
+        List<String> names = new ArrayList<>(stores.size());
+        List<String> addresses = new ArrayList<>(stores.size());
+        for (AnimalStoreDto store : stores) {
+            names.add(store.getStore_name());
+            addresses.add(store.getAddress());
+        }
+        return new StoreSearchIndex(stores, new NgramIndex(names), new NgramIndex(addresses), speciesIds, classificationNgrams);
+    }
+
+    /**
+     * @param classificationById : 종 id → 종 이름 전체
+     * @return 종 이름 색인을 새로 만든 색인 (이름/주소 색인은 공유)
+     */
+    StoreSearchIndex withClassifications(Map<Long, String> classificationById) {
+        Map<String, List<Long>> byName = new HashMap<>();
+        classificationById.forEach((speciesId, classification) ->
+                byName.computeIfAbsent(classification, c -> new ArrayList<>()).add(speciesId));
+
+        List<String> classifications = new ArrayList<>(byName.size());
+        List<long[]> speciesIds = new ArrayList<>(byName.size());
+        byName.forEach((classification, ids) -> {
+            classifications.add(classification);
+            speciesIds.add(ids.stream().mapToLong(Long::longValue).toArray());
+        });
+        return new StoreSearchIndex(stores, names, addresses, speciesIds, new NgramIndex(classifications));
+    }
+
+    /**
+     * @param keyword : 이름/주소 검색어. 비어 있으면 조건 없음
+     * @param classification : 종 검색어. 비어 있으면 조건 없음
+     * @param species : 종별 보유 가게
+     * @return 조건이 있으면 모두 만족하는 가게 id bitmap, 조건이 없으면 null
+     */
+    BitSet match(String keyword, String classification, SpeciesPostings species) {
+        BitSet matched = null;
+        if (!isBlank(keyword)) {
+            matched = new BitSet();
+            setStores(matched, names.search(keyword));
+            setStores(matched, addresses.search(keyword));
+        }
+        if (!isBlank(classification) && (matched == null || !matched.isEmpty())) {
+            List<Long> ids = new ArrayList<>();
+            for (int doc : classificationNgrams.search(classification)) {
+                for (long speciesId : speciesIds.get(doc)) {
+                    ids.add(speciesId);
+                }
+            }
+            BitSet bySpecies = species.anyOf(ids);
+            if (matched == null) {
+                matched = bySpecies;
+            } else {
+                matched.and(bySpecies);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 가까운 순(기준 위치가 없으면 id 순)으로 after 다음부터 limit개를 고른다. 전체를 정렬하지 않고 limit개만 힙으로 남긴다.
+     * @param storeIds : 후보 가게 id bitmap
+     * @param byId : 가게 id → 가게. 없는 id는 건너뛴다
+     * @return 거리는 기준 위치가 없으면 0, 가게 위치가 없으면 무한대
+     */
+    static List<GeoGrid.Nearby> rank(BitSet storeIds, Map<Long, AnimalStoreDto> byId, Double lat, Double lng,
+                                     DistanceCursor after, int limit) {
+        PriorityQueue<GeoGrid.Nearby> top = new PriorityQueue<>(GeoGrid.Nearby.FARTHEST_FIRST);
+        for (int id = storeIds.nextSetBit(0); id >= 0; id = storeIds.nextSetBit(id + 1)) {
+            AnimalStoreDto store = byId.get((long) id);
+            if (store == null) {
+                continue;
+            }
+            double distance = lat == null || lng == null ? 0
+                    : GeoGrid.hasLocation(store) ? GeoGrid.distanceKm(lat, lng, store.getLat(), store.getLng())
+                    : Double.POSITIVE_INFINITY;
+            if (after != null && !after.isBefore(distance, store.getId())) {
+                continue;
+            }
+            if (top.size() == limit) {
+                GeoGrid.Nearby worst = top.peek();
+                if (distance > worst.distanceKm || (distance == worst.distanceKm && store.getId() > worst.store.getId())) {
+                    continue;
+                }
+            }
+            top.add(new GeoGrid.Nearby(store, distance));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<GeoGrid.Nearby> ranked = new ArrayList<>(top);
+        ranked.sort(GeoGrid.Nearby.FARTHEST_FIRST.reversed());
+        return ranked;
+    }
+
+    private void setStores(BitSet target, int[] docs) {
+        for (int doc : docs) {
+            target.set(SpeciesPostings.bit(stores.get(doc).getId()));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
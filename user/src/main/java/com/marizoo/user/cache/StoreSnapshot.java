@@ -0,0 +1,205 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+import com.marizoo.user.dto.animalstore_dto.NearbyStoreDto;
+import com.marizoo.user.util.DistanceCursor;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 가게 목록의 불변 스냅샷.
+ * 가게 요약(AnimalStoreDto), 종별 보유 가게 bitmap, 위치 격자 인덱스, 검색 색인을 함께 들고 있고,
+ * 바뀐 가게만 반영한 새 스냅샷을 만들어 교체한다(copy-on-write). 읽기는 락 없이 한다.
+ * 내용이 바뀔 때마다 version이 올라간다.
+ */
+public final class StoreSnapshot {
+
+    // 조건에 맞는 가게가 이보다 적으면 격자 대신 해당 가게만 거리 계산
+    private static final int SPECIES_SCAN_LIMIT = 1024;
+
+    private final long version;
+    // id 순
+    private final List<AnimalStoreDto> stores;
+    private final Map<Long, AnimalStoreDto> byId;
+    private final SpeciesPostings species;
+    // 종 id → 종 이름
+    private final Map<Long, String> classifications;
+    private final GeoGrid grid;
+    private final StoreSearchIndex searchIndex;
+
+    private StoreSnapshot(long version, List<AnimalStoreDto> stores, Map<Long, AnimalStoreDto> byId,
+                          SpeciesPostings species, Map<Long, String> classifications,
+                          GeoGrid grid, StoreSearchIndex searchIndex) {
+        this.version = version;
+        this.stores = stores;
+        this.byId = byId;
+        this.species = species;
+        this.classifications = classifications;
+        this.grid = grid;
+        this.searchIndex = searchIndex;
+    }
+
+    static StoreSnapshot empty(double cellDegrees) {
+        return new StoreSnapshot(0, Collections.emptyList(), Collections.emptyMap(), SpeciesPostings.EMPTY,
+                Collections.emptyMap(), new GeoGrid(cellDegrees), StoreSearchIndex.empty());
+    }
+
+    /**
+     * @param latest : DB에서 읽은 가게 요약 전체
+     * @return 추가/변경/삭제된 가게만 격자에 반영한 새 스냅샷. 바뀐 게 없으면 자기 자신
+     */
+    StoreSnapshot withStores(List<AnimalStoreDto> latest) {
+        List<AnimalStoreDto> removed = new ArrayList<>();
+        List<AnimalStoreDto> added = new ArrayList<>();
+        Map<Long, AnimalStoreDto> nextById = new HashMap<>();
+        for (AnimalStoreDto store : latest) {
+            nextById.put(store.getId(), store);
+            AnimalStoreDto before = byId.get(store.getId());
+            if (before == null) {
+                added.add(store);
+            } else if (!before.equals(store)) {
+                removed.add(before);
+                added.add(store);
+            }
+        }
+        for (AnimalStoreDto before : stores) {
+            if (!nextById.containsKey(before.getId())) {
+                removed.add(before);
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+
+        List<AnimalStoreDto> nextStores = new ArrayList<>(nextById.values());
+        nextStores.sort(Comparator.comparing(AnimalStoreDto::getId));
+        nextStores = Collections.unmodifiableList(nextStores);
+        return new StoreSnapshot(version + 1, nextStores, nextById, species, classifications,
+                grid.with(removed, added), searchIndex.withStores(nextStores));
+    }
+
+    /**
+     * @param changed : 보유 종이 바뀐 가게 id → 새 보유 종 id (오름차순). 빈 배열이면 보유 종이 없어진 가게
+     * @param names : 이번에 읽은 종 id → 종 이름
+     * @return 바뀐 가게의 bit만 반영한 새 스냅샷. 바뀐 게 없으면 자기 자신
+     */
+    StoreSnapshot withSpecies(Map<Long, long[]> changed, Map<Long, String> names) {
+        SpeciesPostings nextSpecies = species.with(changed);
+        Map<Long, String> nextClassifications = classifications;
+        if (!classifications.entrySet().containsAll(names.entrySet())) {
+            nextClassifications = new HashMap<>(classifications);
+            nextClassifications.putAll(names);
+        }
+        if (nextSpecies == species && nextClassifications == classifications) {
+            return this;
+        }
+        StoreSearchIndex nextIndex = nextClassifications == classifications
+                ? searchIndex
+                : searchIndex.withClassifications(nextClassifications);
+        return new StoreSnapshot(version + 1, stores, byId, nextSpecies, nextClassifications, grid, nextIndex);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<AnimalStoreDto> getStores() {
+        return stores;
+    }
+
+    public AnimalStoreDto get(Long storeId) {
+        return byId.get(storeId);
+    }
+
+    public boolean hasSpecies(Long storeId, long speciesId) {
+        return species.hasSpecies(storeId, speciesId);
+    }
+
+    /**
+     * 기준 위치에서 가까운 가게를 가까운 순으로 찾는다.
+     * @param radiusKm : 반경 (km). null이면 반경 없이 가장 가까운 limit개
+     * @param limit : 최대 개수
+     * @param speciesIds : 이 종을 보유한 가게만. 비어 있으면 전체
+     * @param allSpecies : true면 speciesIds를 모두 보유한 가게만, false면 하나라도 보유한 가게
+     */
+    public List<NearbyStoreDto> nearby(double lat, double lng, Double radiusKm, int limit,
+                                       Collection<Long> speciesIds, boolean allSpecies) {
+        BitSet allowed = speciesFilter(speciesIds, allSpecies);
+        if (allowed != null && allowed.cardinality() <= SPECIES_SCAN_LIMIT) {
+            return scan(allowed, lat, lng, radiusKm, limit);
+        }
+
+        Predicate<AnimalStoreDto> filter = allowed == null ? null : store -> allowed.get(SpeciesPostings.bit(store.getId()));
+        List<GeoGrid.Nearby> found = radiusKm == null
+                ? grid.nearest(lat, lng, limit, filter)
+                : grid.within(lat, lng, radiusKm, limit, filter);
+        return found.stream()
+                .map(nearby -> new NearbyStoreDto(nearby.store, nearby.distanceKm))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 조건에 맞는 가게가 적으면 격자를 넓혀 가는 대신 해당 가게만 거리 계산한다.
+     */
+    private List<NearbyStoreDto> scan(BitSet storeIds, double lat, double lng, Double radiusKm, int limit) {
+        List<NearbyStoreDto> found = new ArrayList<>();
+        for (int id = storeIds.nextSetBit(0); id >= 0; id = storeIds.nextSetBit(id + 1)) {
+            AnimalStoreDto store = byId.get((long) id);
+            if (store == null || !GeoGrid.hasLocation(store)) {
+                continue;
+            }
+            double distance = GeoGrid.distanceKm(lat, lng, store.getLat(), store.getLng());
+            if (radiusKm == null || distance <= radiusKm) {
+                found.add(new NearbyStoreDto(store, distance));
+            }
+        }
+        found.sort(Comparator.comparingDouble(NearbyStoreDto::getDistance).thenComparing(NearbyStoreDto::getId));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * 이름/주소 검색어, 종 검색어, 종 id 조건을 모두 만족하는 가게를 찾는다. (비어 있는 조건은 무시)
+     * @param keyword : 이름/주소 검색어
+     * @param classification : 종 검색어
+     * @param speciesIds : 보유 종 id
+     * @param allSpecies : true면 speciesIds를 모두 보유한 가게만, false면 하나라도 보유한 가게
+     * @param lat : 기준 위도. lat/lng가 있으면 가까운 순, 없으면 id 순
+     * @param after : 이전 페이지의 마지막 위치. null이면 첫 페이지
+     * @param limit : 가져올 가게 수
+     */
+    public List<NearbyStoreDto> search(String keyword, String classification, Collection<Long> speciesIds, boolean allSpecies,
+                                       Double lat, Double lng, DistanceCursor after, int limit) {
+        BitSet matched = searchIndex.match(keyword, classification, species);
+        BitSet bySpecies = speciesFilter(speciesIds, allSpecies);
+        if (matched == null) {
+            matched = bySpecies;
+        } else if (bySpecies != null) {
+            matched.and(bySpecies);
+        }
+        if (matched == null) {
+            return new ArrayList<>();
+        }
+
+        boolean located = lat != null && lng != null;
+        return StoreSearchIndex.rank(matched, byId, lat, lng, after, limit).stream()
+                .map(hit -> new NearbyStoreDto(hit.store,
+                        located && !Double.isInfinite(hit.distanceKm) ? hit.distanceKm : null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return 종 조건에 맞는 가게 id bitmap. 조건이 없으면 null
+     */
+    private BitSet speciesFilter(Collection<Long> speciesIds, boolean allSpecies) {
+        if (speciesIds == null || speciesIds.isEmpty()) {
+            return null;
+        }
+        return allSpecies ? species.allOf(speciesIds) : species.anyOf(speciesIds);
+    }
+
+    public int size() {
+        return stores.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.marizoo.user.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 방송 하나의 먹이 투표 집계.
+ * 투표 옵션(먹이)은 투표 시작 시 고정되므로 맵은 읽기 전용이고,
+ * 먹이별 카운터는 LongAdder라 동시 투표가 몰려도 락 없이 셀 수 있다.
+ * base는 이 집계를 만들 때 DB에 이미 있던 득표 수(다른 인스턴스가 반영했거나 재시작 전에 반영한 표)이고,
+ * 카운터는 이 인스턴스가 받은 표만 센다. DB에는 마지막 반영 이후 늘어난 만큼(delta)만 더한다.
+ */
+public final class VoteTally {
+
+    private final Long broadcastId;
+    private final Long voteId;
+    private final String title;
+    private final Map<Long, Long> base;
+    private final long baseTotal;
+    private final Map<Long, LongAdder> counters;
+    private final LongAdder total = new LongAdder();
+    // 먹이 pk → DB에 반영한 카운터 값. 반영하는 스레드 하나만 읽고 쓴다
+    private final Map<Long, Long> flushed = new HashMap<>();
+    private volatile boolean closed = false;
+    private volatile long closedAtNanos;
+
+    /**
+     * @param base : 먹이 pk → DB의 득표 수 (투표 옵션 순서)
+     */
+    public VoteTally(Long broadcastId, Long voteId, String title, Map<Long, Long> base) {
+        this.broadcastId = broadcastId;
+        this.voteId = voteId;
+        this.title = title;
+        this.base = Collections.unmodifiableMap(new LinkedHashMap<>(base));
+        Map<Long, LongAdder> counters = new LinkedHashMap<>();
+        long baseTotal = 0;
+        for (Map.Entry<Long, Long> entry : base.entrySet()) {
+            counters.put(entry.getKey(), new LongAdder());
+            baseTotal += entry.getValue();
+        }
+        this.counters = Collections.unmodifiableMap(counters);
+        this.baseTotal = baseTotal;
+    }
+
+    /**
+     * @param feedId : 투표한 먹이 pk
+     * @return 투표 옵션에 있는 먹이이고 투표가 닫히지 않아 집계되었는지
+     */
+    public boolean vote(Long feedId) {
+        if (closed) {
+            return false;
+        }
+        LongAdder counter = counters.get(feedId);
+        if (counter == null) {
+            return false;
+        }
+        counter.increment();
+        total.increment();
+        return true;
+    }
+
+    /**
+     * 더 이상 표를 받지 않는다. 닫히기 직전에 통과한 표가 카운터에 더해질 수 있으므로
+     * 최종 반영은 잠시 뒤에 한다.
+     */
+    public void close() {
+        if (!closed) {
+            closedAtNanos = System.nanoTime();
+            closed = true;
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long getClosedAtNanos() {
+        return closedAtNanos;
+    }
+
+    /**
+     * @return 먹이 pk → 마지막 반영 이후 늘어난 득표 수. 늘어난 먹이만 담고, 반영한 것으로 기록한다
+     */
+    public Map<Long, Long> drainDelta() {
+        Map<Long, Long> delta = new LinkedHashMap<>();
+        counters.forEach((feedId, counter) -> {
+            long sum = counter.sum();
+            long before = flushed.getOrDefault(feedId, 0L);
+            if (sum > before) {
+                delta.put(feedId, sum - before);
+                flushed.put(feedId, sum);
+            }
+        });
+        return delta;
+    }
+
+    /**
+     * DB 반영에 실패한 delta를 다음 반영 때 다시 더하도록 되돌린다.
+     */
+    public void restore(Map<Long, Long> delta) {
+        delta.forEach((feedId, count) -> flushed.merge(feedId, -count, Long::sum));
+    }
+
+    /**
+     * @return 먹이 pk 별 득표 수 (투표 옵션 순서)
+     */
+    public Map<Long, Long> snapshot() {
+        Map<Long, Long> result = new LinkedHashMap<>();
+        counters.forEach((feedId, counter) -> result.put(feedId, base.get(feedId) + counter.sum()));
+        return result;
+    }
+
+    public long getTotal() {
+        return baseTotal + total.sum();
+    }
+
+    public Long getBroadcastId() {
+        return broadcastId;
+    }
+
+    public Long getVoteId() {
+        return voteId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
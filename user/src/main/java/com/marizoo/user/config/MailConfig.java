@@ -1,5 +1,6 @@
 package com.marizoo.user.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -9,6 +10,14 @@ import java.util.Properties;
 
 @Configuration
 public class MailConfig {
+    // JavaMail 기본값은 제한 시간 없음. SMTP 서버가 응답하지 않으면 발송 스레드가 계속 묶인다
+    @Value("${mail.smtp.connection-timeout-ms:5000}")
+    private long connectionTimeoutMillis;
+    @Value("${mail.smtp.timeout-ms:10000}")
+    private long timeoutMillis;
+    @Value("${mail.smtp.write-timeout-ms:10000}")
+    private long writeTimeoutMillis;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
@@ -29,6 +38,9 @@ public class MailConfig {
         properties.setProperty("mail.debug", "true");
         properties.setProperty("mail.smtp.ssl.trust","smtp.naver.com");
         properties.setProperty("mail.smtp.ssl.enable","true");
+        properties.setProperty("mail.smtp.connectiontimeout", String.valueOf(connectionTimeoutMillis));
+        properties.setProperty("mail.smtp.timeout", String.valueOf(timeoutMillis));
+        properties.setProperty("mail.smtp.writetimeout", String.valueOf(writeTimeoutMillis));
         return properties;
     }
 }
@@ -1,16 +1,22 @@
 package com.marizoo.user.config;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.marizoo.user.entity.User;
+import com.marizoo.user.auth.JwtProvider;
+import com.marizoo.user.auth.PasswordAuthenticationProvider;
+import com.marizoo.user.auth.UserSnapshotCache;
 import com.marizoo.user.filter.ExceptionHandlerFilter;
 import com.marizoo.user.filter.JwtAuthenticationFilter;
 import com.marizoo.user.filter.JwtAuthorizationFilter;
 import com.marizoo.user.repository.UserRepository;
+import com.marizoo.user.service.RefreshTokenService;
+import com.marizoo.user.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -25,6 +31,9 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import javax.servlet.http.HttpServletResponse;
 import java.util.Arrays;
 
+import static com.marizoo.user.constant.JwtConstant.AT_HEADER;
+import static com.marizoo.user.constant.JwtConstant.TOKEN_HEADER_PREFIX;
+
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
@@ -32,6 +41,10 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordAuthenticationProvider passwordAuthenticationProvider;
+    private final TokenRevocationService tokenRevocationService;
     private final ObjectMapper om;
 
     private final AuthenticationEntryPoint authenticationEntryPoint;
@@ -72,10 +85,23 @@ public class SecurityConfig {
                             log.info("logout request = {}", request);
                             Long userId = Long.parseLong(request.getParameter("userId"));
                             log.info("userId = {}", userId);
-                            User user = userRepository.findById(userId).get();
-                            user.setRefreshToken("");
 
-                            userRepository.save(user);
+                            // 리프레시 토큰 쿠키는 /api/user/refresh 에만 오므로 유저의 모든 family를 폐기한다.
+                            refreshTokenService.revokeAll(userId);
+
+                            // 지금 쓰던 엑세스 토큰은 만료 전이라도 바로 거절되도록 폐기한다.
+                            String accessToken = request.getHeader(AT_HEADER);
+                            if (accessToken != null && accessToken.startsWith(TOKEN_HEADER_PREFIX)) {
+                                try {
+                                    tokenRevocationService.revoke(JwtProvider.verify(accessToken.replace(TOKEN_HEADER_PREFIX, "")));
+                                } catch (JWTVerificationException e) {
+                                    log.info("폐기할 엑세스 토큰이 유효하지 않음, message = {}", e.getMessage());
+                                }
+                            }
+
+                            if (userSnapshotCache.isEnabled()) {
+                                userRepository.findById(userId).ifPresent(user -> userSnapshotCache.evict(user.getUid()));
+                            }
                             log.info("Logout Success");
                         }))
                 )
@@ -85,12 +111,13 @@ public class SecurityConfig {
     public class MyCustomDsl extends AbstractHttpConfigurer<MyCustomDsl, HttpSecurity> {
         @Override
         public void configure(HttpSecurity http) throws Exception {
-            AuthenticationManager authenticationManager = http.getSharedObject(AuthenticationManager.class);
-            JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(authenticationManager, userRepository, om);
+            // BCrypt 비교는 전용 실행기에서 하는 provider 하나만 쓴다
+            AuthenticationManager authenticationManager = new ProviderManager(passwordAuthenticationProvider);
+            JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(authenticationManager, refreshTokenService, om);
             jwtAuthenticationFilter.setFilterProcessesUrl("/api/user/login");
             http
                     .addFilter(jwtAuthenticationFilter)
-                    .addFilterBefore(new JwtAuthorizationFilter(userRepository), UsernamePasswordAuthenticationFilter.class)
+                    .addFilterBefore(new JwtAuthorizationFilter(userRepository, userSnapshotCache, tokenRevocationService), UsernamePasswordAuthenticationFilter.class)
                     .addFilterBefore(new ExceptionHandlerFilter(om), JwtAuthorizationFilter.class);
         }
     }
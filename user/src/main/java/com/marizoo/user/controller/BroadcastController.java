@@ -3,99 +3,104 @@ package com.marizoo.user.controller;
 import com.marizoo.user.api.broadcast_api.BroadcastApi;
 import com.marizoo.user.api.broadcast_api.FeedVoteApi;
 import com.marizoo.user.api.broadcast_api.OnairApi;
+import com.marizoo.user.api.broadcast_api.VoteOpenRequestApi;
+import com.marizoo.user.api.broadcast_api.VoteTallyApi;
+import com.marizoo.user.auth.InternalRequestVerifier;
+import com.marizoo.user.cache.OpenViduSessionCache;
 import com.marizoo.user.dto.broadcast_dto.*;
 import com.marizoo.user.entity.*;
 import com.marizoo.user.service.BroadcastService;
-import io.openvidu.java.client.*;
+import com.marizoo.user.service.LiveBroadcastStreamService;
+import com.marizoo.user.service.VoteService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 @RequestMapping("/api/user/")
 public class BroadcastController {
-//    @Value("${OPENVIDU_URL}")
-    private static String OPENVIDU_URL = "https://i8b208.p.ssafy.io:8445/";
-
-//    @Value("${OPENVIDU_SECRET}")
-    private static String OPENVIDU_SECRET = "MY_SECRET";
-
-    private OpenVidu openvidu;
     private final BroadcastService broadcastService;
-
-    @PostConstruct
-    public void init() {
-        this.openvidu = new OpenVidu(OPENVIDU_URL, OPENVIDU_SECRET);
-    }
-
+    private final OpenViduSessionCache openViduSessionCache;
+    private final VoteService voteService;
+    private final LiveBroadcastStreamService liveBroadcastStreamService;
+    private final InternalRequestVerifier internalRequestVerifier;
 
     @ApiOperation(value= "현재 방송 중인 목록 가져오기")
     @GetMapping("/broadcasts")
     public ResponseEntity<?> getOnairs(){
         // 현재 방송 중인 목록 가져오기
-        List<Broadcast> onairs = broadcastService.getOnAirs();
-        List<BroadcastsDto> result = new ArrayList<>();
-        for (Broadcast onair : onairs) {
-            List<String> classificationImgs = new ArrayList<>();
-            for (BroadcastAnimal broadcastAnimal : onair.getBroadcastAnimalList()) {
-                classificationImgs.add(broadcastAnimal.getAnimal().getSpecies().getClassificationImg());
-            }
-            result.add(new BroadcastsDto(onair.getId(),onair.getSessionId(),onair.getTitle(), onair.getThumbnail(), classificationImgs));
-        }
+        List<BroadcastsDto> result = broadcastService.getOnAirBroadcasts();
         if(result.isEmpty()){
             return new ResponseEntity<>("방송 없음", HttpStatus.BAD_REQUEST);
         }
         return new ResponseEntity<>(new OnairApi(result), HttpStatus.OK);
     }
 
+    @ApiOperation(value = "현재 방송 중인 목록 페이지 가져오기", notes = "응답의 nextCursor를 cursor로 넘기면 다음 페이지를 가져온다.")
+    @GetMapping("/broadcasts/live")
+    public ResponseEntity<?> getOnairPage(@RequestParam(required = false) @ApiParam(name = "커서") String cursor,
+                                          @RequestParam(required = false, defaultValue = "15") @ApiParam(name = "페이지 크기") int size){
+        try {
+            return new ResponseEntity<>(broadcastService.getLiveBroadcastPage(cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @ApiOperation(value = "종료된 방송 목록 페이지 가져오기", notes = "응답의 nextCursor를 cursor로 넘기면 다음 페이지를 가져온다.")
+    @GetMapping("/broadcasts/archive")
+    public ResponseEntity<?> getFinishedPage(@RequestParam(required = false) @ApiParam(name = "커서") String cursor,
+                                             @RequestParam(required = false, defaultValue = "15") @ApiParam(name = "페이지 크기") int size){
+        try {
+            return new ResponseEntity<>(broadcastService.getFinishedBroadcastPage(cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @ApiOperation(value = "현재 방송 중인 목록 구독", notes = "snapshot 이벤트로 현재 목록을 보낸 뒤 added / updated / removed 이벤트를 보낸다.")
+    @GetMapping(value = "/broadcasts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeOnairs(){
+        return liveBroadcastStreamService.subscribe();
+    }
+
     @ApiOperation(value = "broadcast_id에 해당하는 방송 정보를 가져오기", notes = "방송 정보, 방송 출연 동물 정보, 방송 가게 정보")
     @PostMapping("/broadcasts/{broadcast_id}/{session_id}")
     public ResponseEntity<BroadcastApi> getBroadcastInfo
             (@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId,
-             @PathVariable("session_id") @ApiParam(name = "세션 id", required = true) String sessionId)
-            throws OpenViduJavaClientException, OpenViduHttpException {
-        log.info("---------------------------------path variable--------------------------------------");
-        log.info(("broadcast_id : " + broadcastId));
-        log.info(("session_id : " + sessionId));
+             @PathVariable("session_id") @ApiParam(name = "세션 id", required = true) String sessionId) {
+        log.info("broadcast_id = {}, session_id = {}", broadcastId, sessionId);
 
-        // broadcast_id에 해당하는 방송 정보 가져오기.
-        log.info("---------------------------------createConnection--------------------------------------");
-        // 활성 세션 업데이트
-        boolean fetch = openvidu.fetch();
-        log.info(("fetch : " + fetch));
-
-        // sessionId에 해당하는 session 가져오기
-        Session session = openvidu.getActiveSession(sessionId);
-        log.info(("session : " + session));
-
-        // session이 null이라면 방송이 없음.
-        if (session == null) {
-            log.info("!!!!!!!!!!!!session null!!!!!!!!!!!!!!!");
+        // 활성 세션 캐시에서 sessionId에 해당하는 session 확인. null이라면 방송이 없음.
+        if (!openViduSessionCache.isActive(sessionId)) {
+            log.info("session 없음, session_id = {}", sessionId);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        // connection 생성
-        Map<String, Object> params = null;
-        ConnectionProperties properties = ConnectionProperties.fromJson(params).build();
-        Connection connection = session.createConnection(properties);
-        log.info("-----------------------------------------------------------------------");
+        // broadcast_id에 해당하는 방송 정보 가져오기.
         Broadcast broadcast = broadcastService.getBroadcast(broadcastId);
         if(broadcast == null){
             // broadcast_id에 해당하는 방송이 없음
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
+        // connection 생성
+        String connectionToken = openViduSessionCache.createConnection(sessionId);
+        if (connectionToken == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
         // 방송 정보  |  dto 형식으로 변환
         BroadcastDto broadcastDto = new BroadcastDto(broadcast.getTitle(), broadcast.getDescription());
 
@@ -112,7 +117,7 @@ public class BroadcastController {
         onAirAnimalStoreDto animalStoreDto = new onAirAnimalStoreDto(animalStore.getId(), animalStore.getStoreName(), animalStore.getProfileImg());
 
 //        api 형식으로 변환
-        return new ResponseEntity<BroadcastApi>(new BroadcastApi(broadcastDto, animals, animalStoreDto, connection.getToken()), HttpStatus.OK);
+        return new ResponseEntity<BroadcastApi>(new BroadcastApi(broadcastDto, animals, animalStoreDto, connectionToken), HttpStatus.OK);
     }
 
     @ApiOperation(value = "broadcast_id에 해당하는 vote 정보 가져오기")
@@ -134,18 +139,54 @@ public class BroadcastController {
         return new ResponseEntity<FeedVoteApi>(new FeedVoteApi(result), HttpStatus.OK);
 
     }
+
+    @ApiOperation(value = "broadcast_id 방송에서 먹이 투표 시작", notes = "owner 클라이언트가 호출한다.")
+    @PutMapping("/broadcasts/{broadcast_id}/votes")
+    public ResponseEntity<?> openVote(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId,
+                                      @RequestBody VoteOpenRequestApi voteOpenRequest){
+        try {
+            voteService.openVote(broadcastId, voteOpenRequest.getTitle(), voteOpenRequest.getFeedIdList());
+        } catch (Exception e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "broadcast_id 방송의 먹이 투표에 feed_id로 투표")
+    @PostMapping("/broadcasts/{broadcast_id}/votes/{feed_id}")
+    public ResponseEntity<?> vote(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId,
+                                  @PathVariable("feed_id") @ApiParam(name = "먹이 id", required = true, example = "1") Long feedId){
+        if (!voteService.vote(broadcastId, feedId)) {
+            return new ResponseEntity<>("투표 불가", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "broadcast_id 방송의 현재 먹이 투표 집계 가져오기")
+    @GetMapping("/broadcasts/{broadcast_id}/votes")
+    public ResponseEntity<?> getVoteTally(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId){
+        VoteTallyApi tally = voteService.getTally(broadcastId);
+        if (tally == null) {
+            return new ResponseEntity<>("진행 중인 투표 없음", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(tally, HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "broadcast_id 방송의 먹이 투표 집계 구독", notes = "집계가 바뀌면 tally 이벤트를 일정 주기로 보낸다.")
+    @GetMapping(value = "/broadcasts/{broadcast_id}/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeVoteTally(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId){
+        try {
+            return new ResponseEntity<>(voteService.subscribe(broadcastId), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            // emitter 응답이라 본문 없이 상태만 보낸다
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @ApiOperation(value = "keyword에 해당하는 종이 방송에 출연하는 현재 방송중인 방송 목록 가져오기")
     @GetMapping("/broadcasts/search")
     public ResponseEntity<?> getSearchOnairs(@RequestParam(value = "keyword") @ApiParam(name = "검색어", required = true)String keyword){
-        List<Broadcast> searchOnairs = broadcastService.searchOnAirsHavingSpeciesList(keyword);
-        List<BroadcastsDto> result = new ArrayList<>();
-        for (Broadcast onair : searchOnairs) {
-            List<String> classificationImgs = new ArrayList<>();
-            for (BroadcastAnimal broadcastAnimal : onair.getBroadcastAnimalList()) {
-                classificationImgs.add(broadcastAnimal.getClassificationImg());
-            }
-            result.add(new BroadcastsDto(onair.getId(),onair.getSessionId(), onair.getTitle(), onair.getThumbnail(), classificationImgs));
-        }
+        List<BroadcastsDto> result = broadcastService.searchOnAirBroadcasts(keyword);
         if(result.isEmpty()){
             return new ResponseEntity<>("방송 없음", HttpStatus.BAD_REQUEST);
         }
@@ -163,4 +204,26 @@ public class BroadcastController {
         }
         return new ResponseEntity<>(new OnairApi(relatedOnairs), HttpStatus.OK);
     }
+
+    @ApiOperation(value = "방송 시작 알림", notes = "owner 서비스가 방송을 시작한 뒤 내부 토큰을 담아 호출한다.")
+    @PostMapping("/live-broadcasts/{broadcast_id}")
+    public ResponseEntity<?> broadcastStarted(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId,
+                                              @RequestHeader(value = InternalRequestVerifier.INTERNAL_TOKEN_HEADER, required = false) String internalToken){
+        if (!internalRequestVerifier.verify(internalToken)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        broadcastService.broadcastStarted(broadcastId);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "방송 종료 알림", notes = "owner 서비스가 방송을 종료한 뒤 내부 토큰을 담아 호출한다.")
+    @DeleteMapping("/live-broadcasts/{broadcast_id}")
+    public ResponseEntity<?> broadcastEnded(@PathVariable("broadcast_id") @ApiParam(name = "방송 id", required = true, example = "1") Long broadcastId,
+                                            @RequestHeader(value = InternalRequestVerifier.INTERNAL_TOKEN_HEADER, required = false) String internalToken){
+        if (!internalRequestVerifier.verify(internalToken)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        broadcastService.broadcastEnded(broadcastId);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
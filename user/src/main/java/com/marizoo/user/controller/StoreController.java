@@ -1,10 +1,12 @@
 package com.marizoo.user.controller;
 
 import com.marizoo.user.api.animalstore_api.*;
+import com.marizoo.user.cache.StoreCatalog;
 import com.marizoo.user.dto.animal_dto.AnimalDetailDto;
 import com.marizoo.user.dto.animal_dto.AnimalDto;
 import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
 import com.marizoo.user.dto.animalstore_dto.AnimalStoreWholeDto;
+import com.marizoo.user.dto.animalstore_dto.NearbyStoreDto;
 import com.marizoo.user.dto.animalstore_dto.StoreSubDto;
 import com.marizoo.user.dto.broadcast_dto.AnimalBroadcastStatusDto;
 import com.marizoo.user.dto.broadcast_dto.BroadcastStatusDto;
@@ -19,9 +21,12 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
@@ -40,56 +45,57 @@ public class StoreController {
     private final SpeciesService speciesService;
     private final ReservationService reservationService;
 
-    @ApiOperation(value = "동물 가게 목록 가져오기")
+    @ApiOperation(value = "동물 가게 목록 가져오기", notes = "If-None-Match가 현재 ETag와 같으면 304를 준다.")
     @GetMapping("/stores")
-    public ResponseEntity<AnimalStoreListResponse> storeList(){
-        List<AnimalStore> AnimalStoreList = animalStoreService.findAnimalStores();
-        List<AnimalStoreDto> AnimalStoreDtoList = AnimalStoreList.stream()
-                .map(as -> new AnimalStoreDto(
-                        as.getId(),
-                        as.getStoreName(),
-                        as.getTel(),
-                        as.getAddress(),
-                        as.getProfileImg(),
-                        as.getLat(),
-                        as.getLng())).collect(Collectors.toList());
-
-        return new ResponseEntity<>( new AnimalStoreListResponse(AnimalStoreDtoList), HttpStatus.OK);
+    public ResponseEntity<byte[]> storeList(WebRequest request){
+        StoreCatalog catalog = animalStoreService.getStoreCatalog();
+        if (request.checkNotModified(catalog.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(catalog.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.getJson());
+    }
+
+    @ApiOperation(value = "기준 위치에서 가까운 동물 가게 목록 가져오기",
+            notes = "radius를 주면 반경 안의 가게를, 없으면 가장 가까운 size개를 가까운 순으로 준다. " +
+                    "speciesId를 여러 개 주면 하나라도 보유한 가게를, allSpecies=true면 모두 보유한 가게만 준다.")
+    @GetMapping("/stores/nearby")
+    public ResponseEntity<?> nearbyStoreList(@RequestParam @ApiParam(name = "위도", required = true) double lat,
+                                             @RequestParam @ApiParam(name = "경도", required = true) double lng,
+                                             @RequestParam(required = false) @ApiParam(name = "반경 (km)") Double radius,
+                                             @RequestParam(required = false, defaultValue = "20") @ApiParam(name = "최대 개수") int size,
+                                             @RequestParam(required = false) @ApiParam(name = "종 id") List<Long> speciesId,
+                                             @RequestParam(required = false, defaultValue = "false") @ApiParam(name = "종을 모두 보유") boolean allSpecies){
+        try {
+            List<NearbyStoreDto> stores = animalStoreService.findNearbyStores(lat, lng, radius, size, speciesId, allSpecies);
+            return new ResponseEntity<>(new AnimalStoreListResponse<>(stores), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
-    @ApiOperation(value = "[storename, classification]으로 검색한 동물 가게 목록 가져오기")
+    @ApiOperation(value = "[storename, classification, speciesId]로 검색한 동물 가게 목록 가져오기",
+            notes = "storename은 가게 이름과 주소에서, classification은 보유한 종 이름에서 찾고, speciesId는 보유한 종으로 거른다. " +
+                    "speciesId를 여러 개 주면 하나라도 보유한 가게를, allSpecies=true면 모두 보유한 가게만 준다. 여러 조건을 주면 모두 만족하는 가게만 준다. " +
+                    "lat/lng를 주면 가까운 순으로 정렬한다. 응답의 nextCursor를 cursor로 넘기면 다음 페이지를 가져온다.")
     @GetMapping("/stores/search")
-    public ResponseEntity<AnimalStoreListResponse> store_search(
+    public ResponseEntity<?> store_search(
             @RequestParam(name = "storename", required = false, defaultValue = "") @ApiParam(name = "가게명 검색어", required = false)String storename,
-            @RequestParam(name = "classification", required = false, defaultValue = "") @ApiParam(name = "종 검색어", required = false)String species){
-
-        List<AnimalStore> storeList = new ArrayList<>();
-        List<AnimalStoreDto> AnimalStoreDtoList;
-
-        if(storename.length() == 0 && species.length() == 0){
-            return new ResponseEntity(HttpStatus.BAD_REQUEST);
-        }else{
-            // 상호명 검색
-            if(storename.length() != 0 && species.length() == 0){
-                storeList = animalStoreService.findAnimalStoresbyNameSearch(storename);
-            }
-            // 종 검색
-            if(storename.length() == 0 && species.length() != 0){
-                storeList = animalStoreService.findAnimalStoresbySpeciesSearch(species);
-            }
-
-            // 검색 결과 API 객체로 변환.
-            AnimalStoreDtoList = storeList.stream()
-                    .map(as -> new AnimalStoreDto(
-                            as.getId(),
-                            as.getStoreName(),
-                            as.getTel(),
-                            as.getAddress(),
-                            as.getProfileImg(),
-                            as.getLat(),
-                            as.getLng())).collect(Collectors.toList());
-
-            return new ResponseEntity<>(new AnimalStoreListResponse(AnimalStoreDtoList), HttpStatus.OK);
+            @RequestParam(name = "classification", required = false, defaultValue = "") @ApiParam(name = "종 검색어", required = false)String species,
+            @RequestParam(required = false) @ApiParam(name = "종 id") List<Long> speciesId,
+            @RequestParam(required = false, defaultValue = "false") @ApiParam(name = "종을 모두 보유") boolean allSpecies,
+            @RequestParam(required = false) @ApiParam(name = "기준 위도") Double lat,
+            @RequestParam(required = false) @ApiParam(name = "기준 경도") Double lng,
+            @RequestParam(required = false) @ApiParam(name = "커서") String cursor,
+            @RequestParam(required = false, defaultValue = "20") @ApiParam(name = "페이지 크기") int size){
+        try {
+            return new ResponseEntity<>(animalStoreService.searchStores(storename, species, speciesId, allSpecies,
+                    lat, lng, cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -125,21 +131,25 @@ public class StoreController {
     @ApiOperation(value = "store_id가 방송 중인 영상 목록 가져오기")
     @GetMapping("/stores/{store_id}/broadcasts")
     public ResponseEntity<BroadcastListResponse> getOnairBroadcast(@PathVariable(name = "store_id") @ApiParam(name = "동물가게 id", required = true, example = "1") Long store_id){
-        List<Broadcast> onairs = broadcastService.getOnAirs();
-        List<BroadcastsDto> result = new ArrayList<>();
-        for (Broadcast onair : onairs) {
-            if(onair.getAnimalStore().getId() == store_id){
-                List<String> classificationImgs = new ArrayList<>();
-                for (BroadcastAnimal broadcastAnimal : onair.getBroadcastAnimalList()) {
-                    classificationImgs.add(broadcastAnimal.getAnimal().getSpecies().getClassificationImg());
-                }
-                result.add(new BroadcastsDto(onair.getId(), onair.getSessionId(), onair.getTitle(), onair.getThumbnail(), classificationImgs));
-            }
-        }
+        List<BroadcastsDto> result = broadcastService.getStoreOnAirBroadcasts(store_id);
         return new ResponseEntity<>(new BroadcastListResponse(result), HttpStatus.OK);
     }
 
 
+    // 가게 방송 기록 조회
+    @ApiOperation(value = "store_id 가게의 방송 목록 페이지 가져오기", notes = "응답의 nextCursor를 cursor로 넘기면 다음 페이지를 가져온다.")
+    @GetMapping("/stores/{store_id}/broadcasts/history")
+    public ResponseEntity<?> getBroadcastHistory(@PathVariable(name = "store_id") @ApiParam(name = "동물가게 id", required = true, example = "1") Long store_id,
+                                                 @RequestParam(required = false, defaultValue = "FINISH") @ApiParam(name = "방송 상태") BroadcastStatus status,
+                                                 @RequestParam(required = false) @ApiParam(name = "커서") String cursor,
+                                                 @RequestParam(required = false, defaultValue = "15") @ApiParam(name = "페이지 크기") int size){
+        try {
+            return new ResponseEntity<>(broadcastService.getStoreBroadcastPage(store_id, status, cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // 가게 체험 프로그램 목록 제공
     @ApiOperation(value = "store_id가 진행하는 가게 체험 프로그램 목록 가져오기")
     @GetMapping("/stores/{store_id}/plays")
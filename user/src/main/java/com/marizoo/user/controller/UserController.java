@@ -5,18 +5,24 @@ import com.marizoo.user.dto.BookDto;
 import com.marizoo.user.dto.BadgeDto;
 import com.marizoo.user.dto.FavorStoreDto;
 import com.marizoo.user.dto.JoinRequestDto;
+import com.marizoo.user.entity.BookStatus;
 import com.marizoo.user.entity.User;
 import com.marizoo.user.dto.ExceptionResponseDto;
 import com.marizoo.user.exception.AlreadyJoinException;
+import com.marizoo.user.exception.BadgeNotFoundException;
 import com.marizoo.user.exception.PasswordNotMatchException;
 import com.marizoo.user.exception.RefreshTokenException;
 import com.marizoo.user.exception.UserNotFoundException;
 import com.marizoo.user.repository.UserRepository;
 import com.marizoo.user.service.AuthService;
+import com.marizoo.user.service.BulkBadgeService;
+import com.marizoo.user.service.MyPageService;
+import com.marizoo.user.service.UserAvailabilityService;
 import com.marizoo.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -25,8 +31,11 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -42,6 +51,9 @@ public class UserController {
     private final UserRepository userRepository;
     private final UserService userService;
     private final AuthService authService;
+    private final BulkBadgeService bulkBadgeService;
+    private final MyPageService myPageService;
+    private final UserAvailabilityService userAvailabilityService;
 
     @PostMapping("/users")
     public ResponseEntity join(@Valid @RequestBody JoinRequestDto joinRequestDto) {
@@ -59,6 +71,7 @@ public class UserController {
         user.setRole("ROLE_USER");
 
         userRepository.save(user);
+        userAvailabilityService.register(user);
 
         return ResponseEntity.status(HttpServletResponse.SC_CREATED).build();
     }
@@ -71,7 +84,7 @@ public class UserController {
         response.addHeader(AT_HEADER, tokenMap.get(AT_HEADER));
         if (tokenMap.get(RT_HEADER) != null) {
             // refresh token이 재생성되었으므로 쿠키에 저장하여 보내주어야한다.
-            ResponseCookie cookie = ResponseCookie.from(RT_HEADER, refreshToken)
+            ResponseCookie cookie = ResponseCookie.from(RT_HEADER, tokenMap.get(RT_HEADER))
                     .httpOnly(true)
                     .domain("i8b208.p.ssafy.io")
                     .path("/api/user/refresh")
@@ -137,6 +150,28 @@ public class UserController {
         return ResponseEntity.ok(new FavorStoreListResponseApi(favorStoreList));
     }
 
+    @GetMapping("/users/{userId}/summary")
+    public ResponseEntity getMyPageSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(myPageService.getSummary(userId));
+    }
+
+    @GetMapping("/users/{userId}/stores/page")
+    public ResponseEntity getFavorStorePage(@PathVariable Long userId,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false, defaultValue = "15") int size) {
+        return ResponseEntity.ok(userService.getFavorStorePage(userId, cursor, size));
+    }
+
+    @GetMapping("/users/{userId}/books/page")
+    public ResponseEntity getBookPage(@PathVariable Long userId,
+                                      @RequestParam(required = false) BookStatus status,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(required = false) Long cursor,
+                                      @RequestParam(required = false, defaultValue = "15") int size) {
+        return ResponseEntity.ok(userService.getBookPage(userId, status, from, to, cursor, size));
+    }
+
     @GetMapping("/users/{userId}/books")
     public ResponseEntity getBookList(@PathVariable Long userId) {
         List<BookDto> bookDtoList = userService.getBookList(userId);
@@ -150,8 +185,9 @@ public class UserController {
     }
 
     @PostMapping("/broadcasts/badges")
-    public ResponseEntity addBadgeAtRelatedUsers(@RequestBody BulkBadgeRequestApi bulkBadgeRequest) {
-        userService.bulkAddBadge(bulkBadgeRequest.getUserIdList(), bulkBadgeRequest.getBadgeId());
+    public ResponseEntity addBadgeAtRelatedUsers(HttpServletRequest request) throws IOException {
+        // body : {"badgeId": 배지 PK, "userIdList": [유저 PK, ...]}
+        bulkBadgeService.bulkAddBadge(request.getInputStream());
         return ResponseEntity.ok().build();
     }
 
@@ -192,6 +228,12 @@ public class UserController {
         return new ExceptionResponseDto(e.getMessage());
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(BadgeNotFoundException.class)
+    public ExceptionResponseDto badgeNotFoundException(BadgeNotFoundException e) {
+        return new ExceptionResponseDto(e.getMessage());
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(PasswordNotMatchException.class)
     public ExceptionResponseDto passwordNotMatchException(PasswordNotMatchException e) {
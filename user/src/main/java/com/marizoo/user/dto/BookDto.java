@@ -1,7 +1,7 @@
 package com.marizoo.user.dto;
 
 import com.marizoo.user.entity.BookStatus;
-import lombok.AllArgsConstructor;
+import com.querydsl.core.annotations.QueryProjection;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,7 +9,6 @@ import java.time.LocalDateTime;
 
 @Getter
 @Setter
-@AllArgsConstructor
 public class BookDto {
 
     private Long id;
@@ -24,4 +23,18 @@ public class BookDto {
 
     private Long storeId;
 //    private PlayType playType;
+
+    @QueryProjection
+    public BookDto(Long id, LocalDateTime playDateTime, Integer totalVisitor, String storeName, String tel,
+                   String img, BookStatus status, String playTitle, Long storeId) {
+        this.id = id;
+        this.playDateTime = playDateTime;
+        this.totalVisitor = totalVisitor;
+        this.storeName = storeName;
+        this.tel = tel;
+        this.img = img;
+        this.status = status;
+        this.playTitle = playTitle;
+        this.storeId = storeId;
+    }
 }
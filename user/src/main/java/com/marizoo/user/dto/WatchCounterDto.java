@@ -0,0 +1,25 @@
+package com.marizoo.user.dto;
+
+/*
+    유저 한 명의 시청 누적 카운터 (누적값 또는 이번에 더할 값)
+ */
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class WatchCounterDto {
+
+    private final long userId;
+    private final long watchTime;
+    private final long effectCount;
+    private final long feedCount;
+
+    public WatchCounterDto plus(WatchCounterDto other) {
+        return new WatchCounterDto(userId,
+                watchTime + other.watchTime,
+                effectCount + other.effectCount,
+                feedCount + other.feedCount);
+    }
+}
@@ -0,0 +1,25 @@
+package com.marizoo.user.dto.animal_dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+/**
+ * 가게가 보유한 종 (가게 id, 종 id, 종 이름)
+ */
+@Data
+public class StoreSpeciesDto {
+
+    private Long storeId;
+    private Long speciesId;
+    private String classification;
+
+    public StoreSpeciesDto() {
+    }
+
+    @QueryProjection
+    public StoreSpeciesDto(Long storeId, Long speciesId, String classification) {
+        this.storeId = storeId;
+        this.speciesId = speciesId;
+        this.classification = classification;
+    }
+}
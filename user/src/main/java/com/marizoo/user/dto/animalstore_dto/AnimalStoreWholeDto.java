@@ -20,5 +20,6 @@ public class AnimalStoreWholeDto {
     private Float lat;
     private Float lng;
     private boolean isFollowing;
+    private long followerCount;
 
 }
@@ -0,0 +1,24 @@
+package com.marizoo.user.dto.animalstore_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NearbyStoreDto {
+
+    private Long id;
+    private String store_name;
+    private String tel;
+    private String address;
+    private String profile_img;
+    private Float lat;
+    private Float lng;
+    // 기준 위치에서의 거리 (km). 기준 위치나 가게 위치가 없으면 null
+    private Double distance;
+
+    public NearbyStoreDto(AnimalStoreDto store, Double distance) {
+        this(store.getId(), store.getStore_name(), store.getTel(), store.getAddress(),
+                store.getProfile_img(), store.getLat(), store.getLng(), distance);
+    }
+}
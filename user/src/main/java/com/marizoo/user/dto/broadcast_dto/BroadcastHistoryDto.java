@@ -0,0 +1,20 @@
+package com.marizoo.user.dto.broadcast_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BroadcastHistoryDto {
+    // 방송 제목, 방송 썸네일, 방송 시간, 종 이미지
+    private Long id;
+    private String sessionId;
+    private String title;
+    private String thumbnail;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<String> classificationImgs;
+}
@@ -0,0 +1,11 @@
+package com.marizoo.user.dto.broadcast_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FeedTallyDto {
+    private Long feedId;    // 먹이 id
+    private Long count;     // 득표 수
+}
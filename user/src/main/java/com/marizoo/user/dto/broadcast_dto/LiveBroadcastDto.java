@@ -0,0 +1,31 @@
+package com.marizoo.user.dto.broadcast_dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+    메모리에 올려두는 onair 방송 정보. 스냅샷끼리 공유하므로 변경하지 않는다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class LiveBroadcastDto {
+    private final Long id;
+    private final String sessionId;
+    private final String title;
+    private final String thumbnail;
+    private final LocalDateTime startTime;
+    private final Long storeId;
+    private final List<String> classifications;
+    private final List<String> classificationImgs;
+
+    public BroadcastsDto toBroadcastsDto() {
+        return new BroadcastsDto(id, sessionId, title, thumbnail, classificationImgs);
+    }
+}
@@ -25,5 +25,13 @@ public class FeedVote extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "feed_id")
     private Feed feed;
+
+//    === 생성 메서드 ===
+    public static FeedVote createFeedVote(Feed feed, Integer count) {
+        FeedVote feedVote = new FeedVote();
+        feedVote.setFeed(feed);
+        feedVote.setCount(count);
+        return feedVote;
+    }
 }
 
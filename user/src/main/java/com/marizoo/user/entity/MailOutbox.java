@@ -0,0 +1,76 @@
+package com.marizoo.user.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보낼 메일. 요청 처리 중에는 이 행만 저장하고 발송은 MailOutboxService가 한다.
+ * 본문(임시 비밀번호 등)은 암호화된 값이다. 보낸 행은 지우고, 끝내 못 보낸 행은 DEAD로 남기되 본문은 지운다.
+ */
+@Entity
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_status_next", columnList = "status, next_attempt_at, mail_outbox_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "mail_outbox_id")
+    private Long id;
+
+    @Column(nullable = false)
+    private String address;
+
+    private String title;
+
+    @Lob
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private MailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static MailOutbox create(String address, String title, String message, LocalDateTime now) {
+        MailOutbox outbox = new MailOutbox();
+        outbox.address = address;
+        outbox.title = title;
+        outbox.message = message;
+        outbox.status = MailStatus.PENDING;
+        outbox.nextAttemptAt = now;
+        outbox.createdAt = now;
+        return outbox;
+    }
+
+    /**
+     * 발송 실패 기록. 최대 횟수에 닿으면 DEAD로 바꾸고 본문을 지운다.
+     * @param retryAt : 다음 시도 시각
+     */
+    public void failed(String error, LocalDateTime retryAt, int maxAttempts) {
+        attempts++;
+        lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempts >= maxAttempts) {
+            status = MailStatus.DEAD;
+            message = null;
+        } else {
+            nextAttemptAt = retryAt;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.marizoo.user.entity;
+
+public enum MailStatus {
+    PENDING, DEAD
+}
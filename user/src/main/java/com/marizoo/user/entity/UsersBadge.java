@@ -7,6 +7,7 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_users_badge_user_badge", columnNames = {"user_id", "badge_id"}))
 @Getter
 @Setter
 public class UsersBadge extends BaseEntity {
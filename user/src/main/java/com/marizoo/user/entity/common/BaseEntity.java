@@ -38,5 +38,6 @@ public class BaseEntity {
     private String lastModifiedBy;
 
     @LastModifiedDate
+    @Column(name = "last_modified_date")
     private LocalDateTime lastModifiedDate;
 }
@@ -0,0 +1,16 @@
+package com.marizoo.user.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * 비밀번호 해시 작업 큐가 가득 차서 로그인을 처리하지 못한 경우
+ */
+public class PasswordHashOverloadedException extends AuthenticationServiceException {
+    public PasswordHashOverloadedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,14 +1,14 @@
 package com.marizoo.user.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marizoo.user.api.LoginResponseApi;
+import com.marizoo.user.auth.JwtProvider;
 import com.marizoo.user.auth.PrincipalDetails;
 import com.marizoo.user.dto.LoginRequestDto;
 import com.marizoo.user.entity.User;
 import com.marizoo.user.dto.ExceptionResponseDto;
-import com.marizoo.user.repository.UserRepository;
+import com.marizoo.user.exception.PasswordHashOverloadedException;
+import com.marizoo.user.service.RefreshTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -28,7 +28,6 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Date;
 
 import static com.marizoo.user.constant.JwtConstant.*;
 
@@ -37,7 +36,7 @@ import static com.marizoo.user.constant.JwtConstant.*;
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
 
     private final ObjectMapper om;
 
@@ -63,13 +62,10 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         log.info("엑세스 토큰 생성");
         String accessToken = createAccessToken(principalDetails);
 
-        // refresh token 생성
+        // refresh token 생성 후 토큰 저장소에 새 family로 저장한다.
         log.info("리프레시 토큰 생성");
-        String refreshToken = createRefreshToken(principalDetails);
-
-        // DB에 refreshToken 저장한다.
-        log.info("리프레시 토큰 디비에 저장");
-        User user = saveRefreshToken(principalDetails, refreshToken);
+        User user = principalDetails.getUser();
+        String refreshToken = refreshTokenService.issue(user);
 
         // header에 access token을 저장한다.
         log.info("헤더에 access token 저장");
@@ -95,6 +91,13 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
             response.setContentType("application/json");
             response.setCharacterEncoding("utf-8");
             response.getWriter().write(om.writeValueAsString(new ExceptionResponseDto(failed.getMessage())));
+        } else if (failed instanceof PasswordHashOverloadedException) {
+            // 비밀번호 해시 대기열이 가득 참
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType("application/json");
+            response.setCharacterEncoding("utf-8");
+            response.getWriter().write(om.writeValueAsString(new ExceptionResponseDto(failed.getMessage())));
         }
         // UsernameNotFoundException : 계정 없음
         //BadCredentialsException : 아이디 또는 비밀번호 불일치
@@ -116,31 +119,8 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
     }
 
-    private User saveRefreshToken(PrincipalDetails principalDetails, String refreshToken) {
-        User user = userRepository.findByUid(principalDetails.getUser().getUid()).orElseThrow(
-                () -> new UsernameNotFoundException("로그인 중 에러가 발생하였습니다.")
-        );
-
-        user.setRefreshToken(refreshToken);
-        return userRepository.save(user);
-    }
-
-    private static String createRefreshToken(PrincipalDetails principalDetails) {
-        String refreshToken = JWT.create()
-                .withSubject(principalDetails.getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + RT_EXP_TIME))
-                .withIssuedAt(new Date(System.currentTimeMillis()))
-                .sign(Algorithm.HMAC512(JWT_SECRET));
-        return refreshToken;
-    }
-
     private static String createAccessToken(PrincipalDetails principalDetails) {
-        String accessToken = JWT.create()
-                .withSubject(principalDetails.getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + AT_EXP_TIME))
-                .withClaim("uid", principalDetails.getUser().getUid())
-                .sign(Algorithm.HMAC512(JWT_SECRET));
-        return accessToken;
+        return JwtProvider.createAccessToken(principalDetails.getUser());
     }
 
 }
@@ -1,13 +1,16 @@
 package com.marizoo.user.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.marizoo.user.auth.JwtProvider;
 import com.marizoo.user.auth.PrincipalDetails;
+import com.marizoo.user.auth.UserSnapshot;
+import com.marizoo.user.auth.UserSnapshotCache;
 import com.marizoo.user.entity.User;
 import com.marizoo.user.exception.AccessTokenException;
 import com.marizoo.user.repository.UserRepository;
+import com.marizoo.user.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -28,6 +31,8 @@ import static com.marizoo.user.constant.JwtConstant.*;
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
     private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -51,20 +56,21 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         String jwtToken = jwtHeader.replace(TOKEN_HEADER_PREFIX, "");
 
         if (jwtToken != null) {
-            String uid = validateJwtToken(jwtToken);
+            DecodedJWT jwt = validateJwtToken(jwtToken);
+            String uid = jwt.getClaim(JwtProvider.CLAIM_UID).asString();
 
             if (uid == null) {
                 log.error("UID is NULL");
                 throw new AccessTokenException("엑세스 토큰이 잘못되었습니다.");
             }
 
-
-            User userEntity = userRepository.findByUid(uid).orElseThrow(() -> {
-                log.error("UID = {}, User Entity is NULL", uid);
+            // 로그아웃으로 폐기된 토큰
+            if (tokenRevocationService.isRevoked(jwt)) {
+                log.info("폐기된 엑세스 토큰, UID = {}", uid);
                 throw new AccessTokenException("엑세스 토큰이 잘못되었습니다.");
-            });
+            }
 
-            PrincipalDetails principalDetails = new PrincipalDetails(userEntity);
+            PrincipalDetails principalDetails = loadPrincipal(jwt, uid);
             Authentication authentication = new UsernamePasswordAuthenticationToken(
                     principalDetails,
                     null,
@@ -77,13 +83,39 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         }
     }
 
-    private String validateJwtToken(String jwtToken) {
+    /**
+     * 유저 캐시가 켜져 있으면 캐시된 스냅샷으로, 아니면 토큰 claim으로 PrincipalDetails를 만든다.
+     * claim이 없는 이전 형식의 토큰만 DB를 조회한다.
+     */
+    private PrincipalDetails loadPrincipal(DecodedJWT jwt, String uid) {
+        if (userSnapshotCache.isEnabled()) {
+            UserSnapshot snapshot = userSnapshotCache.get(uid);
+            if (snapshot == null) {
+                log.error("UID = {}, User Entity is NULL", uid);
+                throw new AccessTokenException("엑세스 토큰이 잘못되었습니다.");
+            }
+            return PrincipalDetails.of(snapshot);
+        }
+
+        Long id = jwt.getClaim(JwtProvider.CLAIM_ID).asLong();
+        if (id != null) {
+            return PrincipalDetails.of(new UserSnapshot(
+                    id,
+                    uid,
+                    jwt.getClaim(JwtProvider.CLAIM_ROLE).asString(),
+                    jwt.getClaim(JwtProvider.CLAIM_NICKNAME).asString()));
+        }
+
+        User userEntity = userRepository.findByUid(uid).orElseThrow(() -> {
+            log.error("UID = {}, User Entity is NULL", uid);
+            throw new AccessTokenException("엑세스 토큰이 잘못되었습니다.");
+        });
+        return new PrincipalDetails(userEntity);
+    }
+
+    private DecodedJWT validateJwtToken(String jwtToken) {
         try {
-            return JWT.require(Algorithm.HMAC512(JWT_SECRET))
-                    .build()
-                    .verify(jwtToken)
-                    .getClaim("uid")
-                    .asString();
+            return JwtProvider.verify(jwtToken);
         } catch (JWTDecodeException e) {
             log.error(e.getClass().toString());
             log.error(e.getMessage());
@@ -0,0 +1,67 @@
+package com.marizoo.user.repository;
+
+import com.marizoo.user.dto.WatchCounterDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 유저 누적 카운터(시청 시간, 이펙트/먹이 클릭 수) 전용.
+ * 엔티티 전체를 dirty checking으로 쓰지 않고 세 컬럼만 더한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 현재 누적값을 읽으면서 행을 잠근다. 같은 트랜잭션 안에서 addCounters를 호출해야 한다.
+     */
+    public List<WatchCounterDto> findCountersForUpdate(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(userIds.size(), "?"));
+        return jdbcTemplate.query(
+                "select user_id, watch_time_acc, effect_click_acc, feed_click_acc from users" +
+                        " where user_id in (" + placeholders + ") order by user_id for update",
+                (rs, rowNum) -> new WatchCounterDto(
+                        rs.getLong("user_id"),
+                        rs.getLong("watch_time_acc"),
+                        rs.getLong("effect_click_acc"),
+                        rs.getLong("feed_click_acc")),
+                userIds.toArray());
+    }
+
+    /**
+     * @param deltas : userId와 이번에 더할 값. 누적값이 null인 유저는 0부터 센다
+     */
+    public void addCounters(List<WatchCounterDto> deltas) {
+        jdbcTemplate.batchUpdate("update users set" +
+                " watch_time_acc = coalesce(watch_time_acc, 0) + ?," +
+                " effect_click_acc = coalesce(effect_click_acc, 0) + ?," +
+                " feed_click_acc = coalesce(feed_click_acc, 0) + ?" +
+                " where user_id = ?", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                WatchCounterDto delta = deltas.get(i);
+                ps.setLong(1, delta.getWatchTime());
+                ps.setLong(2, delta.getEffectCount());
+                ps.setLong(3, delta.getFeedCount());
+                ps.setLong(4, delta.getUserId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+}
@@ -2,6 +2,10 @@ package com.marizoo.user.repository;
 
 import com.marizoo.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -13,4 +17,16 @@ public interface UserRepository extends JpaRepository<User, Long>, UserRepositor
     Optional<User> findByEmail(String email);
 
     Optional<User> findById(Long userId);
+
+    boolean existsByUid(String uid);
+
+    boolean existsByNickname(String nickname);
+
+    boolean existsByEmail(String email);
+
+    // 비밀번호 해시만 변경 (로그인 시 재해시)
+    @Transactional
+    @Modifying
+    @Query("update User u set u.pwd = :pwd where u.id = :userId")
+    int updatePwd(@Param("userId") Long userId, @Param("pwd") String pwd);
 }
@@ -1,18 +1,36 @@
 package com.marizoo.user.repository;
 
 import com.marizoo.user.dto.BadgeDto;
+import com.marizoo.user.dto.BookDto;
 import com.marizoo.user.dto.FavorStoreDto;
 import com.marizoo.user.entity.AnimalStore;
 import com.marizoo.user.entity.Badge;
+import com.marizoo.user.entity.BookStatus;
 import com.marizoo.user.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepositoryCustom {
     List<FavorStoreDto> getFavorStoreList(Long userId);
 
-    User getBadgeList(Long userId);
+    List<BadgeDto> findBadgeDtoList(Long userId);
 
-    User getBookList(Long userId);
+    List<BookDto> findBookDtoList(Long userId);
+
+    String findNicknameById(Long userId);
+
+    // 마이페이지 묶음 조회용. timeoutMillis가 지나면 DB가 쿼리를 끊는다 (초 단위로 올림)
+    List<FavorStoreDto> getFavorStoreList(Long userId, long timeoutMillis);
+
+    List<BadgeDto> findBadgeDtoList(Long userId, long timeoutMillis);
+
+    List<BookDto> findBookDtoList(Long userId, long timeoutMillis);
+
+    String findNicknameById(Long userId, long timeoutMillis);
+
+    List<BookDto> findBookPage(Long userId, BookStatus status, LocalDateTime from, LocalDateTime to, Long afterId, int limit);
+
+    List<FavorStoreDto> findFavorStorePage(Long userId, Long afterStoreId, int limit);
 }
@@ -1,22 +1,32 @@
 package com.marizoo.user.repository;
 
+import com.marizoo.user.dto.BadgeDto;
+import com.marizoo.user.dto.BookDto;
 import com.marizoo.user.dto.FavorStoreDto;
+import com.marizoo.user.dto.QBadgeDto;
+import com.marizoo.user.dto.QBookDto;
 import com.marizoo.user.dto.QFavorStoreDto;
-import com.marizoo.user.entity.User;
+import com.marizoo.user.entity.BookStatus;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static com.marizoo.user.entity.QAnimalStore.animalStore;
 import static com.marizoo.user.entity.QBadge.badge;
+import static com.marizoo.user.entity.QPlay.play;
 import static com.marizoo.user.entity.QUser.user;
 import static com.marizoo.user.entity.QUsersAnimalStore.usersAnimalStore;
 import static com.marizoo.user.entity.QUsersBadge.usersBadge;
 import static com.marizoo.user.entity.QUsersPlay.usersPlay;
-import static com.marizoo.user.entity.QPlay.play;
 
 public class UserRepositoryCustomImpl implements UserRepositoryCustom {
 
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
     private final JPAQueryFactory queryFactory;
 
     public UserRepositoryCustomImpl(EntityManager em) {
@@ -25,7 +35,12 @@ public class UserRepositoryCustomImpl implements UserRepositoryCustom {
 
     @Override
     public List<FavorStoreDto> getFavorStoreList(Long userId) {
-        return queryFactory
+        return getFavorStoreList(userId, 0);
+    }
+
+    @Override
+    public List<FavorStoreDto> getFavorStoreList(Long userId, long timeoutMillis) {
+        return timeout(queryFactory
                 .select(new QFavorStoreDto(
                         usersAnimalStore.animalStore.id,
                         usersAnimalStore.animalStore.storeName,
@@ -34,29 +49,165 @@ public class UserRepositoryCustomImpl implements UserRepositoryCustom {
                         usersAnimalStore.animalStore.profileImg
                 ))
                 .from(usersAnimalStore)
-                .where(usersAnimalStore.user.id.eq(userId))
+                .where(usersAnimalStore.user.id.eq(userId)), timeoutMillis)
                 .fetch();
     }
 
     @Override
-    public User getBadgeList(Long userId) {
-        return queryFactory
-                .select(user).distinct()
+    public List<BadgeDto> findBadgeDtoList(Long userId) {
+        return findBadgeDtoList(userId, 0);
+    }
+
+    /**
+     * 마이페이지 배지 목록. 엔티티를 올리지 않고 필요한 컬럼만 가져온다.
+     */
+    @Override
+    public List<BadgeDto> findBadgeDtoList(Long userId, long timeoutMillis) {
+        return timeout(queryFactory
+                .select(new QBadgeDto(
+                        badge.img,
+                        badge.badgeType,
+                        badge.description
+                ))
+                .from(usersBadge)
+                .join(usersBadge.badge, badge)
+                .where(usersBadge.user.id.eq(userId))
+                .orderBy(usersBadge.id.asc()), timeoutMillis)
+                .fetch();
+    }
+
+    @Override
+    public List<BookDto> findBookDtoList(Long userId) {
+        return findBookDtoList(userId, 0);
+    }
+
+    /**
+     * 마이페이지 예약 목록
+     */
+    @Override
+    public List<BookDto> findBookDtoList(Long userId, long timeoutMillis) {
+        return timeout(queryFactory
+                .select(new QBookDto(
+                        usersPlay.id,
+                        play.playDateTime,
+                        usersPlay.totalVisitor,
+                        animalStore.storeName,
+                        animalStore.tel,
+                        play.img,
+                        usersPlay.status,
+                        play.title,
+                        animalStore.id
+                ))
+                .from(usersPlay)
+                .join(usersPlay.play, play)
+                .join(play.animalStore, animalStore)
+                .where(usersPlay.user.id.eq(userId))
+                .orderBy(usersPlay.id.asc()), timeoutMillis)
+                .fetch();
+    }
+
+    @Override
+    public String findNicknameById(Long userId) {
+        return findNicknameById(userId, 0);
+    }
+
+    @Override
+    public String findNicknameById(Long userId, long timeoutMillis) {
+        return timeout(queryFactory
+                .select(user.nickname)
                 .from(user)
-                .join(user.badgeList, usersBadge).fetchJoin()
-                .join(usersBadge.badge, badge).fetchJoin()
-                .where(user.id.eq(userId))
+                .where(user.id.eq(userId)), timeoutMillis)
                 .fetchOne();
     }
 
+    /**
+     * @param timeoutMillis : 0 이하면 제한 없음. MySQL 드라이버는 초 단위로만 끊으므로 1초 단위로 올린다
+     */
+    private static <T> JPAQuery<T> timeout(JPAQuery<T> query, long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            long seconds = (timeoutMillis + 999) / 1000;
+            query.setHint(QUERY_TIMEOUT_HINT, (int) Math.min(Integer.MAX_VALUE, seconds * 1000));
+        }
+        return query;
+    }
+
+    /**
+     * 예약 목록 keyset 페이지. 최근 예약(users_play_id 큰 순)부터.
+     *
+     * @param status : 예약 상태. null이면 전체
+     * @param from : 체험 시작 시각 하한(포함). null이면 제한 없음
+     * @param to : 체험 시작 시각 상한(미포함). null이면 제한 없음
+     * @param afterId : 이전 페이지 마지막 예약 PK. null이면 첫 페이지
+     * @param limit : 가져올 개수
+     */
     @Override
-    public User getBookList(Long userId) {
+    public List<BookDto> findBookPage(Long userId, BookStatus status, LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
         return queryFactory
-                .select(user).distinct()
-                .from(user)
-                .join(user.bookList, usersPlay).fetchJoin()
-                .join(usersPlay.play, play).fetchJoin()
-                .where(user.id.eq(userId))
-                .fetchOne();
+                .select(new QBookDto(
+                        usersPlay.id,
+                        play.playDateTime,
+                        usersPlay.totalVisitor,
+                        animalStore.storeName,
+                        animalStore.tel,
+                        play.img,
+                        usersPlay.status,
+                        play.title,
+                        animalStore.id
+                ))
+                .from(usersPlay)
+                .join(usersPlay.play, play)
+                .join(play.animalStore, animalStore)
+                .where(usersPlay.user.id.eq(userId),
+                        bookStatusEq(status),
+                        playDateTimeGoe(from),
+                        playDateTimeLt(to),
+                        bookIdLt(afterId))
+                .orderBy(usersPlay.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * 관심 가게 keyset 페이지. (users_id, animal_store_id) 인덱스 순서대로 가게 PK 큰 순.
+     *
+     * @param afterStoreId : 이전 페이지 마지막 가게 PK. null이면 첫 페이지
+     * @param limit : 가져올 개수
+     */
+    @Override
+    public List<FavorStoreDto> findFavorStorePage(Long userId, Long afterStoreId, int limit) {
+        return queryFactory
+                .select(new QFavorStoreDto(
+                        animalStore.id,
+                        animalStore.storeName,
+                        animalStore.tel,
+                        animalStore.address,
+                        animalStore.profileImg
+                ))
+                .from(usersAnimalStore)
+                .join(usersAnimalStore.animalStore, animalStore)
+                .where(usersAnimalStore.user.id.eq(userId), storeIdLt(afterStoreId))
+                .orderBy(animalStore.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    private BooleanExpression bookStatusEq(BookStatus status) {
+        return status != null ? usersPlay.status.eq(status) : null;
+    }
+
+    private BooleanExpression playDateTimeGoe(LocalDateTime from) {
+        return from != null ? play.playDateTime.goe(from) : null;
+    }
+
+    private BooleanExpression playDateTimeLt(LocalDateTime to) {
+        return to != null ? play.playDateTime.lt(to) : null;
+    }
+
+    private BooleanExpression bookIdLt(Long afterId) {
+        return afterId != null ? usersPlay.id.lt(afterId) : null;
+    }
+
+    private BooleanExpression storeIdLt(Long afterStoreId) {
+        return afterStoreId != null ? usersAnimalStore.animalStore.id.lt(afterStoreId) : null;
     }
 }
@@ -13,4 +13,15 @@ public interface AnimalRepository extends JpaRepository<Animal, Long>, AnimalRep
 
     // 해당 종인 동물 목록
     List<Animal> findBySpeciesId(Long speciesId);
+
+    // 동물의 가게/종 배치가 바뀌었는지 확인하기 위한 변경 표시 (행 수:최대 pk:마지막 수정 시각)
+    @Query(value = "select concat(count(*), ':', coalesce(max(animal_id), 0), ':', coalesce(max(last_modified_date), ''))" +
+            " from animal", nativeQuery = true)
+    String findPlacementMarker();
+
+    // 가게별 보유 동물 변경 표시 [가게 id, 행 수:최대 pk:마지막 수정 시각]. 표시가 바뀐 가게만 보유 종을 다시 읽는다.
+    // 다른 가게로 옮겨진 동물은 옮겨 간 가게의 수정 시각과 원래 가게의 행 수로 잡힌다
+    @Query(value = "select animal_store_id, concat(count(*), ':', max(animal_id), ':', coalesce(max(last_modified_date), ''))" +
+            " from animal where animal_store_id is not null group by animal_store_id", nativeQuery = true)
+    List<Object[]> findStorePlacementMarkers();
 }
@@ -1,12 +1,19 @@
 package com.marizoo.user.repository.animal_repo;
 
 import com.marizoo.user.dto.animal_dto.AnimalDetailDto;
+import com.marizoo.user.dto.animal_dto.StoreSpeciesDto;
 import com.marizoo.user.dto.broadcast_dto.BroadcastStatusDto;
 import com.marizoo.user.entity.Animal;
 import com.marizoo.user.entity.BroadcastStatus;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface AnimalRepositoryCustom {
 
     BroadcastStatusDto findBroadcastStatus(Long animalId);
     AnimalDetailDto findAnimalDetail(Long animalId);
+
+    // 가게별 보유 종과 종 이름 (중복 제거). storeIds가 null이면 전체 가게
+    List<StoreSpeciesDto> findStoreSpecies(Collection<Long> storeIds);
 }
@@ -2,6 +2,8 @@ package com.marizoo.user.repository.animal_repo;
 
 import com.marizoo.user.dto.animal_dto.AnimalDetailDto;
 import com.marizoo.user.dto.animal_dto.QAnimalDetailDto;
+import com.marizoo.user.dto.animal_dto.QStoreSpeciesDto;
+import com.marizoo.user.dto.animal_dto.StoreSpeciesDto;
 import com.marizoo.user.dto.broadcast_dto.BroadcastStatusDto;
 import com.marizoo.user.dto.broadcast_dto.QBroadcastStatusDto;
 import com.marizoo.user.entity.*;
@@ -10,6 +12,8 @@ import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
 
 import static com.marizoo.user.entity.QAnimal.animal;
 import static com.marizoo.user.entity.QAnimalStore.animalStore;
@@ -52,4 +56,17 @@ public class AnimalRepositoryImpl implements AnimalRepositoryCustom{
         return animalDetailDto;
     }
 
+    @Override
+    public List<StoreSpeciesDto> findStoreSpecies(Collection<Long> storeIds) {
+        return queryFactory
+                .select(new QStoreSpeciesDto(animal.animalStore.id, species.id, species.classification)).distinct()
+                .from(animal)
+                .join(animal.species, species)
+                .where(animal.animalStore.id.isNotNull(), storeIdIn(storeIds))
+                .fetch();
+    }
+    private BooleanExpression storeIdIn(Collection<Long> storeIds){
+        return storeIds != null ? animal.animalStore.id.in(storeIds) : null;
+    }
+
 }
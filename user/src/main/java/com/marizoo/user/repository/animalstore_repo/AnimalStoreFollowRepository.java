@@ -3,12 +3,23 @@ package com.marizoo.user.repository.animalstore_repo;
 
 import com.marizoo.user.entity.UsersAnimalStore;
 import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface AnimalStoreFollowRepository extends JpaRepository<UsersAnimalStore, Long> {
 
     UsersAnimalStore save(UsersAnimalStore usersAnimalStore);
 
-}
+    // 팔로우. (users_id, animal_store_id) unique 제약으로 이미 팔로우 중이면 건너뛴다
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into users_animal_store (users_id, animal_store_id, created_date, last_modified_date)" +
+            " values (:userId, :storeId, now(), now())", nativeQuery = true)
+    int follow(@Param("userId") Long userId, @Param("storeId") Long storeId);
 
+    boolean existsByUserIdAndAnimalStoreId(Long userId, Long storeId);
+
+    long countByAnimalStoreId(Long storeId);
+}
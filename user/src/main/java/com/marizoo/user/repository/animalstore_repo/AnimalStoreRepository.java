@@ -14,8 +14,10 @@ public interface AnimalStoreRepository extends JpaRepository<AnimalStore, Long>,
     // 가게 목록 전체 조회
     List<AnimalStore> findAll();
 
-    // 상호명으로 가게 검색
-    List<AnimalStore> findBystoreNameContaining(String storeName);
+    // 가게 목록이 바뀌었는지 확인하기 위한 변경 표시 (행 수:최대 pk:마지막 수정 시각). 추가/수정은 수정 시각으로, 삭제는 행 수로 잡힌다
+    @Query(value = "select concat(count(*), ':', coalesce(max(animal_store_id), 0), ':', coalesce(max(last_modified_date), ''))" +
+            " from animal_store", nativeQuery = true)
+    String findCatalogMarker();
 
 
 
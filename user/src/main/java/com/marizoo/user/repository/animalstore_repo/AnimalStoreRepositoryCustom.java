@@ -2,15 +2,20 @@ package com.marizoo.user.repository.animalstore_repo;
 
 import com.marizoo.user.dto.UsersPlay_dto.UsersPlayDto;
 import com.marizoo.user.dto.animal_dto.OwnedAnimalDto;
-import com.marizoo.user.entity.AnimalStore;
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface AnimalStoreRepositoryCustom {
 
-    // 해당 종을 보유한 가게 검색
-    List<AnimalStore> searchAnimalStoreHavingSpecies(String species);
     List<OwnedAnimalDto> findOwnedAnimalInfo(Long storeId);
     List<String> findClassificationImgs(Long storeId);
     UsersPlayDto findStoreNameForReservation(Long bookId);
+
+    // 지도/목록에 쓰는 가게 요약 전체. id 순
+    List<AnimalStoreDto> findStoreCatalog();
+
+    // 조건에 맞는 가게 요약. id 순. 가게 레지스트리가 아직 로딩 전일 때 쓴다 (비어 있는 조건은 무시)
+    List<AnimalStoreDto> findStoreCatalog(String keyword, String classification, Collection<Long> speciesIds, boolean allSpecies);
 }
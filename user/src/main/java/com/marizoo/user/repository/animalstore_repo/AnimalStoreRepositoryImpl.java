@@ -4,12 +4,17 @@ import com.marizoo.user.dto.UsersPlay_dto.QUsersPlayDto;
 import com.marizoo.user.dto.UsersPlay_dto.UsersPlayDto;
 import com.marizoo.user.dto.animal_dto.OwnedAnimalDto;
 import com.marizoo.user.dto.animal_dto.QOwnedAnimalDto;
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
 import com.marizoo.user.entity.*;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.marizoo.user.entity.QAnimal.animal;
@@ -29,19 +34,6 @@ public class AnimalStoreRepositoryImpl implements AnimalStoreRepositoryCustom{
         this.queryFactory = new JPAQueryFactory(em);
     }
 
-    // 종으로 해당하는 가게 검색
-    public List<AnimalStore> searchAnimalStoreHavingSpecies(String input) {
-
-        List<AnimalStore> findAnimalStore = queryFactory
-                .select(animal.animalStore).distinct()
-                .from(animal)
-                .join(animal.species, species)
-                .where(species.classification.like(input))
-                .fetch();
-
-        return findAnimalStore;
-    }
-
     // 해당 가게가 데리고 있는 동물의 정보(종 정보)를 조회.
     public List<OwnedAnimalDto> findOwnedAnimalInfo(Long storeId){
 
@@ -95,20 +87,71 @@ public class AnimalStoreRepositoryImpl implements AnimalStoreRepositoryCustom{
         return ReservationInfo;
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
+    // 가게 요약 전체. 연관 컬렉션은 읽지 않는다
+    public List<AnimalStoreDto> findStoreCatalog(){
+        return queryFactory
+                .select(Projections.constructor(AnimalStoreDto.class,
+                        animalStore.id, animalStore.storeName, animalStore.tel, animalStore.address,
+                        animalStore.profileImg, animalStore.lat, animalStore.lng))
+                .from(animalStore)
+                .orderBy(animalStore.id.asc())
+                .fetch();
+    }
 
+    /**
+     * 조건에 맞는 가게 요약. 검색 색인과 달리 단순 부분 문자열 일치로 찾는다
+     * @param keyword : 이름/주소 검색어
+     * @param classification : 종 검색어
+     * @param speciesIds : 보유 종 id
+     * @param allSpecies : true면 speciesIds를 모두 보유한 가게만, false면 하나라도 보유한 가게
+     */
+    public List<AnimalStoreDto> findStoreCatalog(String keyword, String classification,
+                                                 Collection<Long> speciesIds, boolean allSpecies){
+        return queryFactory
+                .select(Projections.constructor(AnimalStoreDto.class,
+                        animalStore.id, animalStore.storeName, animalStore.tel, animalStore.address,
+                        animalStore.profileImg, animalStore.lat, animalStore.lng))
+                .from(animalStore)
+                .where(keywordContains(keyword), classificationContains(classification), hasSpecies(speciesIds, allSpecies))
+                .orderBy(animalStore.id.asc())
+                .fetch();
+    }
 
+    private BooleanExpression keywordContains(String keyword){
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        return animalStore.storeName.contains(keyword.strip()).or(animalStore.address.contains(keyword.strip()));
+    }
 
+    private BooleanExpression classificationContains(String classification){
+        if (classification == null || classification.isBlank()) {
+            return null;
+        }
+        return animalStore.id.in(JPAExpressions
+                .select(animal.animalStore.id)
+                .from(animal)
+                .join(animal.species, species)
+                .where(species.classification.contains(classification.strip())));
+    }
 
+    private BooleanExpression hasSpecies(Collection<Long> speciesIds, boolean allSpecies){
+        if (speciesIds == null || speciesIds.isEmpty()) {
+            return null;
+        }
+        if (!allSpecies) {
+            return animalStore.id.in(JPAExpressions
+                    .select(animal.animalStore.id)
+                    .from(animal)
+                    .where(animal.species.id.in(speciesIds)));
+        }
+        long distinct = new HashSet<>(speciesIds).size();
+        return animalStore.id.in(JPAExpressions
+                .select(animal.animalStore.id)
+                .from(animal)
+                .where(animal.species.id.in(speciesIds))
+                .groupBy(animal.animalStore.id)
+                .having(animal.species.id.countDistinct().eq(distinct)));
+    }
 
+}
@@ -1,14 +1,31 @@
 package com.marizoo.user.repository.broadcast_repo;
 
+import com.marizoo.user.dto.broadcast_dto.BroadcastHistoryDto;
+import com.marizoo.user.dto.broadcast_dto.BroadcastsDto;
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
 import com.marizoo.user.dto.broadcast_dto.RelatedBroadcastDto;
 import com.marizoo.user.entity.Broadcast;
+import com.marizoo.user.entity.BroadcastStatus;
+import com.marizoo.user.util.CursorToken;
 
 import java.util.List;
 
 public interface BroadcastRepositoryCustom {
+    // 현재 방송 중인 목록 (종 이미지 포함) dto 조회
+    List<BroadcastsDto> findOnAirBroadcasts(int limit);
+
+    // 가게의 onair 방송 목록 (종 이미지 포함) dto 조회
+    List<BroadcastsDto> findStoreOnAirBroadcasts(Long storeId);
+
+    // (start_time, broadcast_id) keyset 페이지 조회 (storeId가 null이면 전체 가게)
+    List<BroadcastHistoryDto> findBroadcastPage(BroadcastStatus status, Long storeId, CursorToken after, int limit);
+
+    // onair 방송 + 출연 종 정보 조회 (broadcastIds가 null이면 전체)
+    List<LiveBroadcastDto> findLiveBroadcasts(List<Long> broadcastIds);
+
     // onair 방송에 대해 종 검색
     List<Broadcast> searchOnAirsHavingSpecies(String input);
 
-    // 현재 방송과 관련된 방송 목록
+    // 현재 방송과 관련된 방송 목록 (공유하는 종이 많은 순)
     List<RelatedBroadcastDto> searchBroadcastRelated(Long broadcastId, List<String> classifications);
 }
@@ -1,15 +1,26 @@
 package com.marizoo.user.repository.broadcast_repo;
 
+import com.marizoo.user.dto.broadcast_dto.BroadcastHistoryDto;
+import com.marizoo.user.dto.broadcast_dto.BroadcastsDto;
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
 import com.marizoo.user.dto.broadcast_dto.QRelatedBroadcastDto;
 import com.marizoo.user.dto.broadcast_dto.RelatedBroadcastDto;
 
 import com.marizoo.user.entity.Broadcast;
 import com.marizoo.user.entity.BroadcastStatus;
+import com.marizoo.user.util.CursorToken;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static com.marizoo.user.entity.QBroadcast.broadcast;
 import static com.marizoo.user.entity.QBroadcastAnimal.broadcastAnimal;
 
@@ -20,6 +31,192 @@ public class BroadcastRepositoryCustomImpl implements BroadcastRepositoryCustom
         this.queryFactory = new JPAQueryFactory(em);
     }
 
+    /**
+     * 방송 목록 1번 + 종 이미지 1번, 총 2번의 쿼리로 현재 방송 중인 목록을 조회한다.
+     * 종 이미지는 broadcast_animal에 비정규화된 classificationImg를 사용하므로 animal, species를 조인하지 않는다.
+     *
+     * @param limit : 가져올 방송 수
+     * @return 최신 시작 순으로 정렬된 onair 방송 dto list
+     */
+    @Override
+    public List<BroadcastsDto> findOnAirBroadcasts(int limit) {
+        List<Tuple> rows = queryFactory
+                .select(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail)
+                .from(broadcast)
+                .where(onAir(BroadcastStatus.ONAIR))
+                .orderBy(broadcast.startTime.desc())
+                .limit(limit)
+                .fetch();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> broadcastIds = rows.stream().map(row -> row.get(broadcast.id)).collect(Collectors.toList());
+        Map<Long, List<String>> classificationImgs = findClassificationImgs(broadcastIds);
+
+        List<BroadcastsDto> result = new ArrayList<>();
+        for (Tuple row : rows) {
+            Long broadcastId = row.get(broadcast.id);
+            result.add(new BroadcastsDto(
+                    broadcastId,
+                    row.get(broadcast.sessionId),
+                    row.get(broadcast.title),
+                    row.get(broadcast.thumbnail),
+                    classificationImgs.getOrDefault(broadcastId, new ArrayList<>())));
+        }
+        return result;
+    }
+
+    /**
+     * (animal_store_id, status, ...) 인덱스를 타는 쿼리 1번으로 가게의 onair 방송과 종 이미지를 조회한다.
+     *
+     * @param storeId : 가게 pk
+     * @return 최신 시작 순으로 정렬된 가게의 onair 방송 dto list
+     */
+    @Override
+    public List<BroadcastsDto> findStoreOnAirBroadcasts(Long storeId) {
+        List<Tuple> rows = queryFactory
+                .select(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail, broadcastAnimal.classificationImg)
+                .from(broadcast)
+                .leftJoin(broadcast.broadcastAnimalList, broadcastAnimal)
+                .where(broadcast.animalStore.id.eq(storeId), onAir(BroadcastStatus.ONAIR))
+                .orderBy(broadcast.startTime.desc(), broadcast.id.desc(), broadcastAnimal.id.asc())
+                .fetch();
+
+        Map<Long, BroadcastsDto> result = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            BroadcastsDto dto = result.computeIfAbsent(row.get(broadcast.id), id -> new BroadcastsDto(
+                    id,
+                    row.get(broadcast.sessionId),
+                    row.get(broadcast.title),
+                    row.get(broadcast.thumbnail),
+                    new ArrayList<>()));
+            String classificationImg = row.get(broadcastAnimal.classificationImg);
+            if (classificationImg != null) {
+                dto.getClassificationImgs().add(classificationImg);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * (start_time, broadcast_id) keyset 페이지 조회. offset과 count 쿼리 없이
+     * (status, start_time, broadcast_id) 또는 (animal_store_id, status, start_time, broadcast_id) 인덱스 범위만 읽는다.
+     * 방송 1번 + 종 이미지 1번, 총 2번의 쿼리.
+     *
+     * @param status : 방송 상태
+     * @param storeId : 가게 pk. null이면 전체 가게
+     * @param after : 이전 페이지의 마지막 위치. null이면 첫 페이지
+     * @param limit : 가져올 방송 수
+     * @return 최신 시작 순으로 정렬된 방송 dto list
+     */
+    @Override
+    public List<BroadcastHistoryDto> findBroadcastPage(BroadcastStatus status, Long storeId, CursorToken after, int limit) {
+        List<Tuple> rows = queryFactory
+                .select(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail,
+                        broadcast.startTime, broadcast.endTime)
+                .from(broadcast)
+                .where(onAir(status), storeIdEq(storeId), broadcast.startTime.isNotNull(), startedBefore(after))
+                .orderBy(broadcast.startTime.desc(), broadcast.id.desc())
+                .limit(limit)
+                .fetch();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> broadcastIds = rows.stream().map(row -> row.get(broadcast.id)).collect(Collectors.toList());
+        Map<Long, List<String>> classificationImgs = findClassificationImgs(broadcastIds);
+
+        List<BroadcastHistoryDto> result = new ArrayList<>();
+        for (Tuple row : rows) {
+            Long broadcastId = row.get(broadcast.id);
+            result.add(new BroadcastHistoryDto(
+                    broadcastId,
+                    row.get(broadcast.sessionId),
+                    row.get(broadcast.title),
+                    row.get(broadcast.thumbnail),
+                    row.get(broadcast.startTime),
+                    row.get(broadcast.endTime),
+                    classificationImgs.getOrDefault(broadcastId, new ArrayList<>())));
+        }
+        return result;
+    }
+
+    /**
+     * 방송 1번 + 출연 종 1번, 총 2번의 쿼리로 onair 방송을 메모리에 올릴 형태로 조회한다.
+     *
+     * @param broadcastIds : 방송 pk list. null이면 onair 방송 전체
+     * @return onair 방송 + 출연 종 정보 list
+     */
+    @Override
+    public List<LiveBroadcastDto> findLiveBroadcasts(List<Long> broadcastIds) {
+        List<Tuple> rows = queryFactory
+                .select(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail,
+                        broadcast.startTime, broadcast.animalStore.id)
+                .from(broadcast)
+                .where(onAir(BroadcastStatus.ONAIR), broadcastIdIn(broadcastIds))
+                .fetch();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> ids = rows.stream().map(row -> row.get(broadcast.id)).collect(Collectors.toList());
+        Map<Long, List<Tuple>> animals = findBroadcastAnimals(ids);
+
+        List<LiveBroadcastDto> result = new ArrayList<>();
+        for (Tuple row : rows) {
+            Long broadcastId = row.get(broadcast.id);
+            List<String> classifications = new ArrayList<>();
+            List<String> classificationImgs = new ArrayList<>();
+            for (Tuple animal : animals.getOrDefault(broadcastId, new ArrayList<>())) {
+                classifications.add(animal.get(broadcastAnimal.classification));
+                classificationImgs.add(animal.get(broadcastAnimal.classificationImg));
+            }
+            result.add(new LiveBroadcastDto(
+                    broadcastId,
+                    row.get(broadcast.sessionId),
+                    row.get(broadcast.title),
+                    row.get(broadcast.thumbnail),
+                    row.get(broadcast.startTime),
+                    row.get(broadcast.animalStore.id),
+                    classifications,
+                    classificationImgs));
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param broadcastIds : 방송 pk list
+     * @return 방송 pk 별 출연 동물의 종 이미지 list
+     */
+    private Map<Long, List<String>> findClassificationImgs(List<Long> broadcastIds) {
+        Map<Long, List<String>> result = new HashMap<>();
+        findBroadcastAnimals(broadcastIds).forEach((broadcastId, animals) -> result.put(broadcastId,
+                animals.stream().map(animal -> animal.get(broadcastAnimal.classificationImg)).collect(Collectors.toList())));
+        return result;
+    }
+
+    /**
+     *
+     * @param broadcastIds : 방송 pk list
+     * @return 방송 pk 별 출연 동물의 (종, 종 이미지) list
+     */
+    private Map<Long, List<Tuple>> findBroadcastAnimals(List<Long> broadcastIds) {
+        List<Tuple> rows = queryFactory
+                .select(broadcastAnimal.broadcast.id, broadcastAnimal.classification, broadcastAnimal.classificationImg)
+                .from(broadcastAnimal)
+                .where(broadcastAnimal.broadcast.id.in(broadcastIds))
+                .orderBy(broadcastAnimal.id.asc())
+                .fetch();
+
+        Map<Long, List<Tuple>> result = new HashMap<>();
+        for (Tuple row : rows) {
+            result.computeIfAbsent(row.get(broadcastAnimal.broadcast.id), id -> new ArrayList<>()).add(row);
+        }
+        return result;
+    }
+
     /**
      *
      * @param input : 검색어
@@ -45,6 +242,36 @@ public class BroadcastRepositoryCustomImpl implements BroadcastRepositoryCustom
         return bstatus != null ? broadcast.status.eq(bstatus) : null;
     }
 
+    /**
+     *
+     * @param storeId : 가게 pk
+     * @return storeId가 null이 아니라면 해당 가게의 방송인지
+     */
+    private BooleanExpression storeIdEq(Long storeId){
+        return storeId != null ? broadcast.animalStore.id.eq(storeId) : null;
+    }
+
+    /**
+     * @param after : 커서
+     * @return (start_time, broadcast_id)가 커서보다 뒤(오래된 쪽)인지
+     */
+    private BooleanExpression startedBefore(CursorToken after){
+        if (after == null) {
+            return null;
+        }
+        return broadcast.startTime.lt(after.getStartTime())
+                .or(broadcast.startTime.eq(after.getStartTime()).and(broadcast.id.lt(after.getId())));
+    }
+
+    /**
+     *
+     * @param broadcastIds : 방송 pk list
+     * @return broadcastIds가 null이 아니라면 방송 pk in 조건
+     */
+    private BooleanExpression broadcastIdIn(List<Long> broadcastIds){
+        return broadcastIds != null ? broadcast.id.in(broadcastIds) : null;
+    }
+
     /**
      *
      * @param input : 검색어
@@ -72,10 +299,13 @@ public class BroadcastRepositoryCustomImpl implements BroadcastRepositoryCustom
     public List<RelatedBroadcastDto> searchBroadcastRelated(Long broadcastId, List<String> classifications) {
         BroadcastStatus status = BroadcastStatus.ONAIR;
         return queryFactory
-                .select(new QRelatedBroadcastDto(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail)).distinct()
+                .select(new QRelatedBroadcastDto(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail))
                 .from(broadcastAnimal)
                 .join(broadcastAnimal.broadcast, broadcast)
                 .where(onAir(status), classificationsIn(classifications), notMine(broadcastId))
+                .groupBy(broadcast.id, broadcast.sessionId, broadcast.title, broadcast.thumbnail, broadcast.startTime)
+                // 공유하는 종이 많은 순
+                .orderBy(broadcastAnimal.classification.countDistinct().desc(), broadcast.startTime.desc(), broadcast.id.desc())
                 .fetch();
 
     }
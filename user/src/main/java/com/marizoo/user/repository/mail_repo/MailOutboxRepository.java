@@ -0,0 +1,29 @@
+package com.marizoo.user.repository.mail_repo;
+
+import com.marizoo.user.entity.MailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // 발송할 차례인 메일을 잠근다. 다른 인스턴스가 잠근 행은 건너뛴다 (MySQL 8)
+    @Query(value = "select mail_outbox_id from mail_outbox" +
+            " where status = 'PENDING' and next_attempt_at <= :now" +
+            " order by next_attempt_at, mail_outbox_id limit :limit for update skip locked",
+            nativeQuery = true)
+    List<Long> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 발송하는 동안 다른 인스턴스가 다시 가져가지 않도록 다음 시도 시각을 미룬다
+    @Modifying
+    @Query("update MailOutbox m set m.nextAttemptAt = :until where m.id in :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("delete from MailOutbox m where m.id in :ids")
+    int deleteSent(@Param("ids") List<Long> ids);
+}
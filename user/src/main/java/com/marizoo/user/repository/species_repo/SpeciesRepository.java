@@ -9,5 +9,10 @@ public interface SpeciesRepository extends JpaRepository<Species, Long> {
 
     Species findSpeciesById(Long speciesId);
 
+    // 종 이름이 바뀌었는지 확인하기 위한 변경 표시 (행 수:최대 pk:마지막 수정 시각)
+    @Query(value = "select concat(count(*), ':', coalesce(max(species_id), 0), ':', coalesce(max(last_modified_date), ''))" +
+            " from species", nativeQuery = true)
+    String findNameMarker();
+
 
 }
@@ -0,0 +1,38 @@
+package com.marizoo.user.repository.token_repo;
+
+import com.marizoo.user.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // 새 family 저장 (id를 직접 정하므로 save()의 select 없이 insert 한 번)
+    @Modifying
+    @Query(value = "insert into refresh_token (family_id, user_id, token_hash, expires_at) values (:familyId, :userId, :tokenHash, :expiresAt)",
+            nativeQuery = true)
+    int insert(@Param("familyId") String familyId, @Param("userId") Long userId,
+               @Param("tokenHash") String tokenHash, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // 현재 토큰이 맞을 때만 새 토큰으로 교체. 0이면 이미 교체된(재사용된) 토큰이거나 없는 family
+    @Modifying
+    @Query("update RefreshToken t set t.tokenHash = :newHash, t.expiresAt = :expiresAt " +
+            "where t.familyId = :familyId and t.tokenHash = :oldHash and t.expiresAt > :now")
+    int rotate(@Param("familyId") String familyId, @Param("oldHash") String oldHash, @Param("newHash") String newHash,
+               @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.userId = :userId")
+    int deleteAllByUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
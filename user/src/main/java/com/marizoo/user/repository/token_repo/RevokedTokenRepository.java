@@ -0,0 +1,26 @@
+package com.marizoo.user.repository.token_repo;
+
+import com.marizoo.user.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Modifying
+    @Query(value = "insert ignore into revoked_token (jti, expires_at, revoked_at) values (:jti, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    int insertIgnore(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt,
+                     @Param("revokedAt") LocalDateTime revokedAt);
+
+    // 다른 인스턴스에서 폐기된 토큰 동기화
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime revokedAt, LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,57 @@
+package com.marizoo.user.repository.vote_repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 먹이 투표 득표 수(feed_vote.count) 전용.
+ * 엔티티를 읽어 덮어쓰지 않고 인스턴스가 모은 증가분만 더하므로, 여러 인스턴스가 동시에 반영해도 서로 덮어쓰지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VoteCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param deltas : 먹이 PK → 이번에 더할 득표 수
+     */
+    public void addCounts(long voteId, Map<Long, Long> deltas) {
+        List<Map.Entry<Long, Long>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate("update feed_vote set `count` = coalesce(`count`, 0) + ? where vote_id = ? and feed_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, rows.get(i).getValue());
+                        ps.setLong(2, voteId);
+                        ps.setLong(3, rows.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    /**
+     * @return 먹이 PK → 득표 수
+     */
+    public Map<Long, Long> findCounts(long voteId) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("select feed_id, `count` from feed_vote where vote_id = ?",
+                rs -> {
+                    counts.put(rs.getLong("feed_id"), rs.getLong("count"));
+                }, voteId);
+        return counts;
+    }
+}
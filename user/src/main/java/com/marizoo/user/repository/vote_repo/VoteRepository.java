@@ -0,0 +1,7 @@
+package com.marizoo.user.repository.vote_repo;
+
+import com.marizoo.user.entity.Vote;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface VoteRepository extends JpaRepository<Vote, Long> {
+}
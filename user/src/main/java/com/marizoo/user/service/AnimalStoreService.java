@@ -1,6 +1,10 @@
 package com.marizoo.user.service;
 
+import com.marizoo.user.api.CursorPageApi;
 import com.marizoo.user.api.animalstore_api.PlayAndStoreInfoResponse;
+import com.marizoo.user.cache.FollowGraph;
+import com.marizoo.user.cache.StoreCatalog;
+import com.marizoo.user.cache.StoreRegistry;
 import com.marizoo.user.dto.animalstore_dto.*;
 import com.marizoo.user.dto.play_dto.PlayInfoDto;
 import com.marizoo.user.entity.*;
@@ -10,11 +14,14 @@ import com.marizoo.user.repository.animalstore_repo.AnimalStoreRepository;
 import com.marizoo.user.repository.broadcast_repo.BroadcastRepository;
 import com.marizoo.user.repository.play_repo.PlayRepository;
 import com.marizoo.user.repository.reservation_repo.UsersPlayRepository;
+import com.marizoo.user.util.DistanceCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -29,14 +36,48 @@ public class AnimalStoreService {
     private final PlayRepository playRepository;
     private final UsersPlayRepository usersPlayRepository;
     private final BroadcastRepository broadcastRepository;
+    private final StoreRegistry storeRegistry;
+    private final FollowGraph followGraph;
+
+    private static final int MAX_NEARBY_SIZE = 100;
+    private static final double MAX_NEARBY_RADIUS_KM = 200;
+    private static final int MAX_SEARCH_SIZE = 50;
 
     /**
-     * 가게 목록 전체 조회
-     * @return 전제 가게 목록
+     * 가게 목록 전체 조회. 가게가 바뀔 때만 새로 만들어지는 직렬화된 스냅샷을 돌려준다.
+     * @return 전체 가게 목록 응답
      */
+    @Transactional(readOnly = true)
+    public StoreCatalog getStoreCatalog(){
+        return storeRegistry.getCatalog();
+    }
 
-    public List<AnimalStore> findAnimalStores(){
-        return animalStoreRepository.findAll();
+    /**
+     * 기준 위치에서 가까운 가게 조회. DB 대신 메모리의 위치 인덱스를 본다. (레지스트리 로딩 전에는 DB 조회)
+     * @param lat : 기준 위도
+     * @param lng : 기준 경도
+     * @param radiusKm : 반경 (km). null이면 반경 없이 가장 가까운 size개
+     * @param size : 최대 개수
+     * @param speciesIds : 이 종을 보유한 가게만. 비어 있으면 전체
+     * @param allSpecies : true면 speciesIds를 모두 보유한 가게만, false면 하나라도 보유한 가게
+     * @return 가까운 순 가게 목록
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyStoreDto> findNearbyStores(double lat, double lng, Double radiusKm, int size,
+                                                 List<Long> speciesIds, boolean allSpecies) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("잘못된 좌표입니다.");
+        }
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM)) {
+            throw new IllegalArgumentException("반경은 0보다 크고 " + (int) MAX_NEARBY_RADIUS_KM + "km 이하여야 합니다.");
+        }
+        if (size < 1 || size > MAX_NEARBY_SIZE) {
+            throw new IllegalArgumentException("size는 1 이상 " + MAX_NEARBY_SIZE + " 이하여야 합니다.");
+        }
+        if (!storeRegistry.isLoaded()) {
+            return storeRegistry.findNearbyFromDb(lat, lng, radiusKm, size, speciesIds, allSpecies);
+        }
+        return storeRegistry.getSnapshot().nearby(lat, lng, radiusKm, size, speciesIds, allSpecies);
     }
 
     /**
@@ -49,14 +90,10 @@ public class AnimalStoreService {
         log.info("가게 아이디로 가게 조회, 가게 아이디 = {} 유저 아이디 = {}", storeId, userId);
         AnimalStore animalStore = animalStoreRepository.findById(storeId).get();
 
-        boolean followFlag = false;
-        List<UsersAnimalStore> followers = animalStore.getFollowers();
-        for (UsersAnimalStore usersAnimalStore : followers) {
-            if (usersAnimalStore.getUser().getId() == userId) {
-                followFlag = true;
-                break;
-            }
-        }
+        boolean followFlag = userId != null && isFollowing(userId, storeId);
+        long followerCount = followGraph.isLoaded()
+                ? followGraph.getFollowerCount(storeId)
+                : animalStoreFollowRepository.countByAnimalStoreId(storeId);
 
         return new AnimalStoreWholeDto(
                 animalStore.getId(),
@@ -69,35 +106,80 @@ public class AnimalStoreService {
                 animalStore.getProfileImg(),
                 animalStore.getLat(),
                 animalStore.getLng(),
-                followFlag);
+                followFlag,
+                followerCount);
     }
 
     /**
-     * 검색한 상호명이 포함된 가게 조회.
-     * @param storename : 상호명
-     * @return 가게
+     * 이름/주소 검색어, 종 검색어, 보유 종 id로 가게 검색. 여러 조건이 주어지면 모두 만족하는 가게만 찾는다.
+     * DB 대신 메모리의 검색 색인과 종별 보유 가게 bitmap을 본다. (레지스트리 로딩 전에는 DB 조회)
+     * @param keyword : 가게 이름/주소 검색어
+     * @param classification : 종 검색어
+     * @param speciesIds : 보유 종 id
+     * @param allSpecies : true면 speciesIds를 모두 보유한 가게만, false면 하나라도 보유한 가게
+     * @param lat : 기준 위도. lat/lng가 있으면 가까운 순, 없으면 등록 순
+     * @param lng : 기준 경도
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
      */
-    public List<AnimalStore> findAnimalStoresbyNameSearch(String storename){
-        return animalStoreRepository.findBystoreNameContaining(storename);
+    @Transactional(readOnly = true)
+    public CursorPageApi<NearbyStoreDto> searchStores(String keyword, String classification,
+                                                      List<Long> speciesIds, boolean allSpecies,
+                                                      Double lat, Double lng, String cursor, int size) {
+        if (isBlank(keyword) && isBlank(classification) && (speciesIds == null || speciesIds.isEmpty())) {
+            throw new IllegalArgumentException("검색어를 입력해 주세요.");
+        }
+        if ((lat == null) != (lng == null)) {
+            throw new IllegalArgumentException("위도와 경도는 함께 보내야 합니다.");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+        boolean located = lat != null;
+
+        DistanceCursor after = DistanceCursor.decode(cursor);
+        List<NearbyStoreDto> rows = storeRegistry.isLoaded()
+                ? storeRegistry.getSnapshot().search(keyword, classification, speciesIds, allSpecies, lat, lng, after, limit + 1)
+                : storeRegistry.searchFromDb(keyword, classification, speciesIds, allSpecies, lat, lng, after, limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPageApi<>(rows, null, false);
+        }
+        List<NearbyStoreDto> content = new ArrayList<>(rows.subList(0, limit));
+        NearbyStoreDto last = content.get(limit - 1);
+        // 거리가 없는 가게는 기준 위치가 있으면 맨 뒤(무한대), 없으면 등록 순(0)으로 정렬되어 있다
+        double distance = last.getDistance() != null ? last.getDistance() : located ? Double.POSITIVE_INFINITY : 0;
+        return new CursorPageApi<>(content, new DistanceCursor(distance, last.getId()).encode(), true);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     /**
-     * 검색한 종을 포함한 가게 조회.
-     * @param species : 종
-     * @return 가게
+     * 팔로우. 이미 팔로우 중이면 아무것도 하지 않는다.
+     * insert가 바로 커밋되도록 트랜잭션 밖에서 실행하고, 커밋된 뒤 팔로우 그래프에 반영한다.
+     * @param storeId : 가게 id
+     * @param userId : 유저 id
      */
-    
-    public List<AnimalStore> findAnimalStoresbySpeciesSearch(String species){
-        return animalStoreRepository.searchAnimalStoreHavingSpecies(species);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void followingStore(Long storeId, Long userId){
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("존재하지 않는 회원입니다.");
+        }
+        if (storeRegistry.getSnapshot().get(storeId) == null && !animalStoreRepository.existsById(storeId)) {
+            throw new RuntimeException("존재하지 않는 가게입니다.");
+        }
+        animalStoreFollowRepository.follow(userId, storeId);
+        followGraph.followed(userId, storeId);
     }
 
-    // 팔로우
-     public void followingStore(Long storeId, Long userId){
-        User user = userRepository.findById(userId).get();
-        AnimalStore animalStore = animalStoreRepository.findById(storeId).get();
-        UsersAnimalStore follower = new UsersAnimalStore(animalStore, user);
-        animalStoreFollowRepository.save(follower);
-     }
+    /**
+     * @return userId가 storeId 가게를 팔로우하는지. 팔로우 그래프가 아직 로딩 전이면 DB로 확인
+     */
+    private boolean isFollowing(Long userId, Long storeId) {
+        if (followGraph.isLoaded()) {
+            return followGraph.isFollowing(userId, storeId);
+        }
+        return animalStoreFollowRepository.existsByUserIdAndAnimalStoreId(userId, storeId);
+    }
 
     /**
      * 가게 id에 해당하는 체험 프로그램 조회.
@@ -0,0 +1,127 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.entity.Badge;
+import com.marizoo.user.entity.BadgeType;
+import com.marizoo.user.repository.BadgeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 누적 카운터 배지 규칙.
+ * Badge 테이블의 (badgeType, cond)를 타입별 정렬된 long 배열로 들고 있다가,
+ * 카운터가 before → after로 바뀌었을 때 (before, after] 구간의 조건을 이분 탐색 두 번으로 찾는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BadgeRuleEngine {
+
+    private final BadgeRepository badgeRepository;
+
+    private volatile Map<BadgeType, Rules> rules;
+
+    /**
+     * @param badgeType : 카운터 종류
+     * @param before : 변경 전 누적값
+     * @param after : 변경 후 누적값
+     * @return 이번 변경으로 새로 달성한 배지 PK list. 조건 오름차순
+     */
+    public List<Long> crossed(BadgeType badgeType, long before, long after) {
+        if (after <= before) {
+            return Collections.emptyList();
+        }
+        Rules typeRules = getRules().get(badgeType);
+        if (typeRules == null) {
+            return Collections.emptyList();
+        }
+        return typeRules.crossed(before, after);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 배지 테이블이 바뀌었을 수 있으므로 주기적으로 다시 읽는다.
+     */
+    @Scheduled(fixedDelayString = "${badge.rules.reload-interval-ms:600000}",
+            initialDelayString = "${badge.rules.reload-interval-ms:600000}")
+    public void reload() {
+        try {
+            rules = load();
+        } catch (Exception e) {
+            log.error("배지 규칙 로딩 실패", e);
+        }
+    }
+
+    private Map<BadgeType, Rules> getRules() {
+        Map<BadgeType, Rules> current = rules;
+        if (current == null) {
+            current = load();
+            rules = current;
+        }
+        return current;
+    }
+
+    private Map<BadgeType, Rules> load() {
+        Map<BadgeType, List<Badge>> byType = new EnumMap<>(BadgeType.class);
+        for (Badge badge : badgeRepository.findAll()) {
+            if (badge.getBadgeType() != null) {
+                byType.computeIfAbsent(badge.getBadgeType(), type -> new ArrayList<>()).add(badge);
+            }
+        }
+
+        Map<BadgeType, Rules> loaded = new EnumMap<>(BadgeType.class);
+        byType.forEach((type, badges) -> loaded.put(type, new Rules(badges)));
+        return loaded;
+    }
+
+    private static final class Rules {
+        // 조건 오름차순. badgeIds[i]는 thresholds[i]를 달성하면 받는 배지
+        private final long[] thresholds;
+        private final long[] badgeIds;
+
+        private Rules(List<Badge> badges) {
+            badges.sort(Comparator.comparingInt(Badge::getCond).thenComparing(Badge::getId));
+            thresholds = new long[badges.size()];
+            badgeIds = new long[badges.size()];
+            for (int i = 0; i < badges.size(); i++) {
+                thresholds[i] = badges.get(i).getCond();
+                badgeIds[i] = badges.get(i).getId();
+            }
+        }
+
+        private List<Long> crossed(long before, long after) {
+            int from = upperBound(before);
+            int to = upperBound(after);
+            List<Long> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(badgeIds[i]);
+            }
+            return result;
+        }
+
+        /**
+         * @return value보다 큰 첫 조건의 위치
+         */
+        private int upperBound(long value) {
+            int lo = 0, hi = thresholds.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (thresholds[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
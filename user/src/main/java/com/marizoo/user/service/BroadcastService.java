@@ -1,11 +1,17 @@
 package com.marizoo.user.service;
 
+import com.marizoo.user.api.CursorPageApi;
+import com.marizoo.user.cache.LiveBroadcastRegistry;
+import com.marizoo.user.dto.broadcast_dto.BroadcastHistoryDto;
+import com.marizoo.user.dto.broadcast_dto.BroadcastsDto;
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
 import com.marizoo.user.dto.broadcast_dto.RelatedBroadcastDto;
 import com.marizoo.user.entity.Broadcast;
 import com.marizoo.user.entity.BroadcastAnimal;
 import com.marizoo.user.entity.BroadcastStatus;
 import com.marizoo.user.entity.FeedVote;
 import com.marizoo.user.repository.broadcast_repo.BroadcastRepository;
+import com.marizoo.user.util.CursorToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -15,22 +21,157 @@ import javax.transaction.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BroadcastService {
     private final BroadcastRepository broadcastRepository;
+    private final LiveBroadcastRegistry liveBroadcastRegistry;
+    private final VoteService voteService;
+
+    private static final int ONAIR_LIST_SIZE = 15;
+    private static final int MAX_PAGE_SIZE = 50;
 
     /**
      * 현재 방송 중인 방송 목록 전체 조회
      * @return onair 방송 목록
      */
     public List<Broadcast> getOnAirs(){
-        PageRequest pageRequest = PageRequest.of(0, 15, Sort.by("startTime").descending());
+        PageRequest pageRequest = PageRequest.of(0, ONAIR_LIST_SIZE, Sort.by("startTime").descending());
         return broadcastRepository.findByStatus(BroadcastStatus.ONAIR, pageRequest).getContent();
     }
 
+    /**
+     * 현재 방송 중인 방송 목록 dto 조회
+     * 레지스트리가 준비되어 있으면 DB를 조회하지 않는다.
+     * @return onair 방송 목록 + 출연 동물 종 이미지
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<BroadcastsDto> getOnAirBroadcasts(){
+        if (!liveBroadcastRegistry.isLoaded()) {
+            return broadcastRepository.findOnAirBroadcasts(ONAIR_LIST_SIZE);
+        }
+        return toBroadcastsDtoList(liveBroadcastRegistry.getSnapshot().getBroadcasts().stream().limit(ONAIR_LIST_SIZE));
+    }
+
+    /**
+     * 가게의 현재 방송 중인 방송 목록 dto 조회
+     * @param storeId : 가게 PK
+     * @return 가게의 onair 방송 목록 + 출연 동물 종 이미지
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<BroadcastsDto> getStoreOnAirBroadcasts(Long storeId){
+        if (!liveBroadcastRegistry.isLoaded()) {
+            return broadcastRepository.findStoreOnAirBroadcasts(storeId);
+        }
+        return toBroadcastsDtoList(liveBroadcastRegistry.getSnapshot().getStoreBroadcasts(storeId).stream());
+    }
+
+    /**
+     * keyword에 해당하는 종이 출연하는 라이브 방송 dto 조회
+     * @param keyword : 검색어(종)
+     * @return 라이브 방송 중 검색어 종이 출연하는 방송 목록
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<BroadcastsDto> searchOnAirBroadcasts(String keyword){
+        if (!liveBroadcastRegistry.isLoaded()) {
+            return searchOnAirsHavingSpeciesList(keyword).stream()
+                    .map(onair -> new BroadcastsDto(onair.getId(), onair.getSessionId(), onair.getTitle(), onair.getThumbnail(),
+                            onair.getBroadcastAnimalList().stream().map(BroadcastAnimal::getClassificationImg).collect(Collectors.toList())))
+                    .collect(Collectors.toList());
+        }
+        return toBroadcastsDtoList(liveBroadcastRegistry.getSnapshot().searchByClassification(keyword).stream());
+    }
+
+    /**
+     * 현재 방송 중인 방송 keyset 페이지 조회
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
+     * @return onair 방송 페이지
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public CursorPageApi<BroadcastHistoryDto> getLiveBroadcastPage(String cursor, int size){
+        CursorToken after = CursorToken.decode(cursor);
+        int limit = pageSize(size);
+        if (!liveBroadcastRegistry.isLoaded()) {
+            return toCursorPage(broadcastRepository.findBroadcastPage(BroadcastStatus.ONAIR, null, after, limit + 1), limit);
+        }
+        List<BroadcastHistoryDto> page = liveBroadcastRegistry.getSnapshot().page(after, limit + 1).stream()
+                .map(live -> new BroadcastHistoryDto(live.getId(), live.getSessionId(), live.getTitle(), live.getThumbnail(),
+                        live.getStartTime(), null, live.getClassificationImgs()))
+                .collect(Collectors.toList());
+        return toCursorPage(page, limit);
+    }
+
+    /**
+     * 가게의 방송 keyset 페이지 조회
+     * @param storeId : 가게 PK
+     * @param status : 방송 상태
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
+     * @return 가게의 방송 페이지
+     */
+    public CursorPageApi<BroadcastHistoryDto> getStoreBroadcastPage(Long storeId, BroadcastStatus status, String cursor, int size){
+        int limit = pageSize(size);
+        return toCursorPage(broadcastRepository.findBroadcastPage(status, storeId, CursorToken.decode(cursor), limit + 1), limit);
+    }
+
+    /**
+     * 종료된 방송 keyset 페이지 조회
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
+     * @return 종료된 방송 페이지
+     */
+    public CursorPageApi<BroadcastHistoryDto> getFinishedBroadcastPage(String cursor, int size){
+        int limit = pageSize(size);
+        return toCursorPage(broadcastRepository.findBroadcastPage(BroadcastStatus.FINISH, null, CursorToken.decode(cursor), limit + 1), limit);
+    }
+
+    private int pageSize(int size){
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * @param rows : limit + 1개까지 조회한 방송. limit보다 많으면 다음 페이지가 있다
+     * @param limit : 페이지 크기
+     */
+    private CursorPageApi<BroadcastHistoryDto> toCursorPage(List<BroadcastHistoryDto> rows, int limit){
+        if (rows.size() <= limit) {
+            return new CursorPageApi<>(rows, null, false);
+        }
+        List<BroadcastHistoryDto> content = new ArrayList<>(rows.subList(0, limit));
+        BroadcastHistoryDto last = content.get(limit - 1);
+        if (last.getStartTime() == null) {
+            return new CursorPageApi<>(content, null, false);
+        }
+        return new CursorPageApi<>(content, new CursorToken(last.getStartTime(), last.getId()).encode(), true);
+    }
+
+    private List<BroadcastsDto> toBroadcastsDtoList(Stream<LiveBroadcastDto> broadcasts){
+        return broadcasts.map(LiveBroadcastDto::toBroadcastsDto).collect(Collectors.toList());
+    }
+
+    /**
+     * 방송 시작 알림을 레지스트리에 반영
+     * @param broadcastId : 방송 PK
+     */
+    public void broadcastStarted(Long broadcastId){
+        liveBroadcastRegistry.broadcastStarted(broadcastId);
+    }
+
+    /**
+     * 방송 종료 알림을 레지스트리에 반영하고 서버에서 집계한 투표를 저장. DB에서 아직 방송 중이면 무시한다
+     * @param broadcastId : 방송 PK
+     */
+    public void broadcastEnded(Long broadcastId){
+        if (liveBroadcastRegistry.broadcastEnded(broadcastId)) {
+            voteService.endVote(broadcastId);
+        }
+    }
+
     /**
      * broadcast_id에 해당하는 방송 정보 가져오기
      * @param broadcastId : 방송 PK
@@ -70,7 +211,17 @@ public class BroadcastService {
      * @param broadcastId : 방송 PK
      * @return 라이브 방송 중 종 리스트에 있는 종이 출연하는 방송 목록
      */
+    @Transactional(Transactional.TxType.SUPPORTS)
     public List<RelatedBroadcastDto> searchBroadcastRelated(Long broadcastId){
+        // onair 방송이면 레지스트리의 종 역색인으로 찾는다
+        List<LiveBroadcastDto> related = liveBroadcastRegistry.isLoaded()
+                ? liveBroadcastRegistry.getSnapshot().findRelated(broadcastId) : null;
+        if (related != null) {
+            return related.stream()
+                    .map(live -> new RelatedBroadcastDto(live.getId(), live.getSessionId(), live.getTitle(), live.getThumbnail()))
+                    .collect(Collectors.toList());
+        }
+
         Optional<Broadcast> opt = broadcastRepository.findById(broadcastId);
         if(opt.isEmpty()){
             throw new RuntimeException("방송이 존재하지 않습니다");
@@ -0,0 +1,177 @@
+package com.marizoo.user.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marizoo.user.exception.BadgeNotFoundException;
+import com.marizoo.user.repository.BadgeRepository;
+import com.marizoo.user.repository.UsersBadgeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 방송 시청자 전체에게 배지 한 개를 주는 대량 지급.
+ * 요청 body({"badgeId": 1, "userIdList": [1, 2, ...]})를 List로 만들지 않고 스트림으로 읽으면서
+ * long[] chunk 단위로 잘라 multi-row insert ignore를 병렬로 실행한다.
+ * 풀의 대기열이 차면 요청 스레드가 직접 insert 하므로, 파싱이 DB보다 앞서 메모리를 쌓지 않는다.
+ */
+@Slf4j
+@Service
+public class BulkBadgeService {
+
+    private static final String FIELD_BADGE_ID = "badgeId";
+    private static final String FIELD_USER_ID_LIST = "userIdList";
+
+    private final UsersBadgeRepository usersBadgeRepository;
+    private final BadgeRepository badgeRepository;
+    private final ObjectMapper om;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+
+    public BulkBadgeService(UsersBadgeRepository usersBadgeRepository,
+                            BadgeRepository badgeRepository,
+                            ObjectMapper om,
+                            @Value("${badge.bulk.chunk-size:2000}") int chunkSize,
+                            @Value("${badge.bulk.threads:4}") int threads) {
+        this.usersBadgeRepository = usersBadgeRepository;
+        this.badgeRepository = badgeRepository;
+        this.om = om;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-badge-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * @param body : BulkBadge 요청 body
+     * @return 새로 배지를 받은 유저 수 (이미 가진 유저 제외)
+     * @throws BadgeNotFoundException badgeId가 없거나 없는 배지인 경우. (insert ignore는 FK 오류도 경고로 넘기므로 먼저 확인한다)
+     * @throws IllegalArgumentException body 형식이 잘못되었거나 id가 정수가 아닌 경우
+     */
+    public int bulkAddBadge(InputStream body) throws IOException {
+        Long badgeId = null;
+        // badgeId가 userIdList 뒤에 오면 그때까지 읽은 chunk를 들고 있는다
+        List<long[]> waiting = new ArrayList<>();
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try (JsonParser parser = om.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("잘못된 요청 형식입니다.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (FIELD_BADGE_ID.equals(field)) {
+                    if (value == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    badgeId = readId(parser, value);
+                    if (!badgeRepository.existsById(badgeId)) {
+                        throw new BadgeNotFoundException("해당하는 배지가 없습니다.");
+                    }
+                    for (long[] chunk : waiting) {
+                        futures.add(submit(badgeId, chunk, chunk.length));
+                    }
+                    waiting.clear();
+                } else if (FIELD_USER_ID_LIST.equals(field) && value == JsonToken.START_ARRAY) {
+                    long[] buffer = new long[chunkSize];
+                    int length = 0;
+                    JsonToken element;
+                    while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        buffer[length++] = readId(parser, element);
+                        if (length == chunkSize) {
+                            if (badgeId != null) {
+                                futures.add(submit(badgeId, buffer, length));
+                            } else {
+                                waiting.add(buffer);
+                            }
+                            buffer = new long[chunkSize];
+                            length = 0;
+                        }
+                    }
+                    if (length > 0) {
+                        long[] last = length == chunkSize ? buffer : Arrays.copyOf(buffer, length);
+                        if (badgeId != null) {
+                            futures.add(submit(badgeId, last, length));
+                        } else {
+                            waiting.add(last);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("잘못된 요청 형식입니다.", e);
+        }
+
+        if (badgeId == null) {
+            throw new BadgeNotFoundException("해당하는 배지가 없습니다.");
+        }
+        return await(futures);
+    }
+
+    /**
+     * @return 현재 토큰의 정수 값. 정수가 아니면(문자열, 소수, null 등) IllegalArgumentException
+     */
+    private static long readId(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT) {
+            throw new IllegalArgumentException("id는 정수여야 합니다.");
+        }
+        return parser.getLongValue();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Future<Integer> submit(long badgeId, long[] userIds, int length) {
+        return executor.submit(() -> usersBadgeRepository.bulkAddBadge(badgeId, userIds, length));
+    }
+
+    /**
+     * 모든 chunk가 끝날 때까지 기다린다. 실패한 chunk가 있으면 첫 예외를 던진다.
+     * insert ignore라서 같은 요청을 다시 보내면 빠진 유저만 채워진다.
+     */
+    private int await(List<Future<Integer>> futures) {
+        int inserted = 0;
+        RuntimeException failure = null;
+        for (Future<Integer> future : futures) {
+            try {
+                inserted += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("배지 지급이 중단되었습니다.", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        log.info("배지 대량 지급 : chunk {}개, 신규 {}명", futures.size(), inserted);
+        return inserted;
+    }
+}
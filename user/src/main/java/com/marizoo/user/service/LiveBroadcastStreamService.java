@@ -0,0 +1,349 @@
+package com.marizoo.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marizoo.user.api.broadcast_api.OnairApi;
+import com.marizoo.user.cache.LiveBroadcastChangeEvent;
+import com.marizoo.user.cache.LiveBroadcastRegistry;
+import com.marizoo.user.cache.LiveBroadcastSnapshot;
+import com.marizoo.user.dto.broadcast_dto.LiveBroadcastDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * onair 방송 목록 변경을 SSE로 구독자에게 보낸다.
+ * 구독 시 현재 목록(snapshot)을 한 번 보내고, 이후에는 added / updated / removed 이벤트만 보낸다.
+ *
+ * 이벤트는 한 번만 직렬화해 구독자별 제한된 큐에 넣고, 적은 수의 전송 스레드가 큐를 비운다.
+ * 대기 중인 연결은 스레드를 점유하지 않는다.
+ * 큐가 가득 찬 느린 구독자는 밀린 이벤트를 버리고 최신 snapshot 하나만 받는다.
+ * 전송(send)은 블로킹이므로, 한 번의 전송이 제한 시간을 넘긴 구독자는 구독에서 빼고
+ * 그 전송이 끝날 때까지 전송 스레드를 하나 더 붙여 다른 구독자가 기다리지 않게 한다.
+ * heartbeat와 전송 감시는 공용 스케줄러의 긴 작업 뒤에 밀리지 않도록 전용 스레드에서 돌린다.
+ */
+@Slf4j
+@Service
+public class LiveBroadcastStreamService {
+
+    private static final int DRAIN_BATCH = 32;
+
+    private final LiveBroadcastRegistry liveBroadcastRegistry;
+    private final ObjectMapper om;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+    private final int maxStalledSenders;
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService watchdog;
+    private final long heartbeatMillis;
+    private final long sendCheckMillis;
+    // 제한 시간을 넘겨 묶여 있는 전송 스레드 수. 그만큼 전송 스레드를 더 둔다
+    private int stalledSenders = 0;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence = 0;
+    // 마지막으로 직렬화한 스냅샷. 같은 스냅샷이면 다시 직렬화하지 않는다.
+    private volatile SerializedSnapshot serializedSnapshot;
+
+    private final Counter resyncCounter;
+    private final Counter evictedCounter;
+
+    public LiveBroadcastStreamService(LiveBroadcastRegistry liveBroadcastRegistry,
+                                      ObjectMapper om,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${live.stream.timeout-ms:1800000}") long timeoutMillis,
+                                      @Value("${live.stream.queue-capacity:32}") int queueCapacity,
+                                      @Value("${live.stream.sender-threads:2}") int senderThreads,
+                                      @Value("${live.stream.send-timeout-ms:5000}") long sendTimeoutMillis,
+                                      @Value("${live.stream.max-stalled-senders:8}") int maxStalledSenders,
+                                      @Value("${live.stream.heartbeat-ms:15000}") long heartbeatMillis,
+                                      @Value("${live.stream.send-check-ms:1000}") long sendCheckMillis) {
+        this.liveBroadcastRegistry = liveBroadcastRegistry;
+        this.om = om;
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.senderThreads = senderThreads;
+        this.maxStalledSenders = maxStalledSenders;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeatMillis = heartbeatMillis;
+        this.sendCheckMillis = sendCheckMillis;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        meterRegistry.gauge("live.stream.subscribers", subscribers, Set::size);
+        this.resyncCounter = Counter.builder("live.stream.resync").register(meterRegistry);
+        this.evictedCounter = Counter.builder("live.stream.evicted").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        watchdog.scheduleAtFixedRate(() -> run("heartbeat", this::heartbeat), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        watchdog.scheduleWithFixedDelay(() -> run("전송 감시", this::evictStalled), sendCheckMillis, sendCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * onair 방송 목록 구독
+     * @return 현재 목록을 보낸 뒤 변경 이벤트를 보내는 emitter
+     */
+    public synchronized SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, queueCapacity);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+        enqueue(subscriber, snapshotEvent(liveBroadcastRegistry.getSnapshot()));
+        return emitter;
+    }
+
+    /**
+     * 레지스트리 변경을 모든 구독자 큐에 넣는다. 레지스트리 쓰기 락 안에서 불리므로 변경 순서가 유지된다.
+     */
+    @EventListener
+    public synchronized void onChange(LiveBroadcastChangeEvent change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        StreamEvent event = changeEvent(change);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                // 느린 구독자 : 밀린 변경을 버리고 최신 목록으로 다시 맞춘다
+                subscriber.queue.clear();
+                subscriber.queue.offer(snapshotEvent(change.getSnapshot()));
+                resyncCounter.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * 끊긴 연결을 찾아내고 프록시가 유휴 연결을 닫지 않도록 주기적으로 comment를 보낸다.
+     */
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(StreamEvent.HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * 전송 하나가 제한 시간을 넘긴 구독자를 구독에서 뺀다. 묶인 스레드는 전송이 끝날 때까지 못 쓰므로 전송 스레드를 하나 더 둔다.
+     * emitter는 send가 끝나야 닫을 수 있으므로, 닫는 것은 그 전송 스레드가 돌아온 뒤에 한다.
+     */
+    public void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos && evict(subscriber)) {
+                evictedCounter.increment();
+                log.info("전송이 {}ms 넘게 끝나지 않아 구독 해제", TimeUnit.NANOSECONDS.toMillis(now - since));
+            }
+        }
+    }
+
+    /**
+     * @return 이번에 구독에서 뺐는지. 그 사이 전송이 끝났으면 빼지 않는다
+     */
+    private synchronized boolean evict(Subscriber subscriber) {
+        if (subscriber.sendingSince == 0 || subscriber.stalled) {
+            return false;
+        }
+        subscriber.stalled = true;
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        if (stalledSenders < maxStalledSenders) {
+            stalledSenders++;
+            subscriber.spareSender = true;
+            sender.setMaximumPoolSize(senderThreads + stalledSenders);
+            sender.setCorePoolSize(senderThreads + stalledSenders);
+        }
+        return true;
+    }
+
+    /**
+     * 묶여 있던 전송이 끝났으면 더 두었던 전송 스레드를 돌려놓는다
+     */
+    private synchronized void releaseSpareSender(Subscriber subscriber) {
+        if (!subscriber.spareSender) {
+            return;
+        }
+        subscriber.spareSender = false;
+        stalledSenders--;
+        sender.setCorePoolSize(senderThreads + stalledSenders);
+        sender.setMaximumPoolSize(senderThreads + stalledSenders);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * 예외가 나면 ScheduledExecutorService가 이후 실행을 멈추므로 로그만 남긴다
+     */
+    private static void run(String name, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("구독 {} 실패", name, e);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, StreamEvent event) {
+        subscriber.queue.offer(event);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            for (int i = 0; i < DRAIN_BATCH && !subscriber.stalled; i++) {
+                StreamEvent event = subscriber.queue.poll();
+                if (event == null) {
+                    break;
+                }
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(event.toSse());
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+            releaseSpareSender(subscriber);
+        }
+        if (subscriber.stalled) {
+            // 제한 시간을 넘겨 구독에서 빠진 구독자 : 늦게라도 전송이 끝났으니 연결을 닫는다
+            subscriber.emitter.complete();
+            return;
+        }
+        // 다른 구독자가 기다리지 않도록 한 번에 DRAIN_BATCH개까지만 보내고 다시 예약한다
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private StreamEvent changeEvent(LiveBroadcastChangeEvent change) {
+        String name = change.getType().name().toLowerCase();
+        Object data = change.getType() == LiveBroadcastChangeEvent.Type.REMOVED
+                ? Map.of("id", change.getBroadcastId())
+                : change.getBroadcast().toBroadcastsDto();
+        return new StreamEvent(++sequence, name, toJson(data));
+    }
+
+    private StreamEvent snapshotEvent(LiveBroadcastSnapshot snapshot) {
+        SerializedSnapshot serialized = serializedSnapshot;
+        if (serialized == null || serialized.snapshot != snapshot) {
+            OnairApi onairApi = new OnairApi(snapshot.getBroadcasts().stream()
+                    .map(LiveBroadcastDto::toBroadcastsDto)
+                    .collect(Collectors.toList()));
+            serialized = new SerializedSnapshot(snapshot, toJson(onairApi));
+            serializedSnapshot = serialized;
+        }
+        return new StreamEvent(sequence, "snapshot", serialized.json);
+    }
+
+    private String toJson(Object data) {
+        try {
+            return om.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("방송 목록 이벤트 직렬화 실패", e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<StreamEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        // 진행 중인 send의 시작 시각 (System.nanoTime). 0이면 전송 중이 아님
+        private volatile long sendingSince = 0;
+        // 전송 제한 시간을 넘겨 구독에서 빠졌는지
+        private volatile boolean stalled = false;
+        // 이 구독자 때문에 전송 스레드를 하나 더 두었는지. 서비스 락 안에서만 바꾼다
+        private boolean spareSender = false;
+
+        private Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    private static final class StreamEvent {
+        private static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null);
+
+        private final long id;
+        private final String name;
+        // 직렬화된 JSON. 모든 구독자가 같은 문자열을 공유한다.
+        private final String json;
+
+        private StreamEvent(long id, String name, String json) {
+            this.id = id;
+            this.name = name;
+            this.json = json;
+        }
+
+        private SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().id(String.valueOf(id)).name(name).data(json);
+        }
+    }
+
+    private static final class SerializedSnapshot {
+        private final LiveBroadcastSnapshot snapshot;
+        private final String json;
+
+        private SerializedSnapshot(LiveBroadcastSnapshot snapshot, String json) {
+            this.snapshot = snapshot;
+            this.json = json;
+        }
+    }
+}
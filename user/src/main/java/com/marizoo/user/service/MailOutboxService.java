@@ -0,0 +1,240 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.dto.MailDto;
+import com.marizoo.user.entity.MailOutbox;
+import com.marizoo.user.repository.mail_repo.MailOutboxRepository;
+import com.marizoo.user.util.TextCipher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 메일 outbox.
+ * 요청 처리 중에는 mail_outbox에 행만 넣고(호출한 쪽 트랜잭션과 함께 커밋), 발송은 스케줄러가 한다.
+ * 한 번에 batchSize개를 SMTP 연결 하나로 보내고, 실패한 메일은 지수 backoff로 다시 시도하다가 maxAttempts에 닿으면 DEAD로 남긴다.
+ * 본문(임시 비밀번호 등)은 암호화해서 저장하고 보낼 때만 복호화한다.
+ * SMTP 호출은 응답이 늦으면 제한 시간까지 묶이므로, 공용 스케줄러 스레드가 아닌 전용 스레드에서 보낸다.
+ */
+@Slf4j
+@Service
+public class MailOutboxService {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final TextCipher cipher;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+    private final ExecutorService dispatcher;
+    // 발송이 길어지면 다음 주기는 건너뛴다
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+    public MailOutboxService(MailOutboxRepository mailOutboxRepository,
+                             JavaMailSender mailSender,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${mail.outbox.secret:}") String secret,
+                             @Value("${mail.outbox.from:${spring.mail.username:}}") String from,
+                             @Value("${mail.outbox.batch-size:50}") int batchSize,
+                             @Value("${mail.outbox.max-attempts:5}") int maxAttempts,
+                             @Value("${mail.outbox.backoff-ms:10000}") long backoffMillis,
+                             @Value("${mail.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+                             @Value("${mail.outbox.lease-ms:60000}") long leaseMillis) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        if (secret == null || secret.isBlank()) {
+            // 다른 인스턴스나 재시작 후에는 복호화할 수 없으므로 운영에서는 반드시 설정한다
+            log.warn("mail.outbox.secret이 없어 임시 키로 메일 본문을 암호화합니다.");
+            this.cipher = TextCipher.random();
+        } else {
+            this.cipher = new TextCipher(secret);
+        }
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 메일을 outbox에 넣는다. 호출한 쪽 트랜잭션이 롤백되면 메일도 나가지 않는다.
+     */
+    @Transactional
+    public void enqueue(MailDto mailDto) {
+        mailOutboxRepository.save(MailOutbox.create(mailDto.getAddress(), mailDto.getTitle(),
+                cipher.encrypt(mailDto.getMessage()), LocalDateTime.now()));
+    }
+
+    /**
+     * 전용 스레드에서 발송을 시작한다. 이전 발송이 아직 끝나지 않았으면 건너뛴다.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        if (!dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    dispatch();
+                } catch (Exception e) {
+                    log.error("메일 발송 실패", e);
+                } finally {
+                    dispatching.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+            dispatching.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * 보낼 차례인 메일을 batch 단위로 모두 보낸다.
+     */
+    public void dispatch() {
+        List<MailOutbox> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                record(batch, send(batch));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * 보낼 메일을 잠그고 lease를 걸어 다른 인스턴스와 겹치지 않게 가져온다.
+     */
+    private List<MailOutbox> claim() {
+        List<MailOutbox> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = mailOutboxRepository.claimDue(now, batchSize);
+            if (ids.isEmpty()) {
+                return Collections.<MailOutbox>emptyList();
+            }
+            mailOutboxRepository.lease(ids, now.plusNanos(leaseMillis * 1_000_000));
+            return mailOutboxRepository.findAllById(ids);
+        });
+        return claimed == null ? Collections.emptyList() : claimed;
+    }
+
+    /**
+     * SMTP 연결 하나로 batch를 보낸다.
+     * @return 실패한 메일 → 원인
+     */
+    private Map<MailOutbox, Exception> send(List<MailOutbox> batch) {
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        Map<SimpleMailMessage, MailOutbox> byMessage = new IdentityHashMap<>();
+        for (MailOutbox outbox : batch) {
+            try {
+                byMessage.put(toMessage(outbox), outbox);
+            } catch (IllegalArgumentException e) {
+                // 다른 키로 암호화된 본문
+                failures.put(outbox, e);
+            }
+        }
+        if (byMessage.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(outbox -> failures.put(outbox, e));
+            }
+            // 실패 목록은 equals로 찾으므로 내용이 같은 메일은 함께 실패로 본다 (다시 보내도 무해)
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            byMessage.forEach((message, outbox) -> {
+                Exception cause = failedMessages.get(message);
+                if (cause != null) {
+                    failures.put(outbox, cause);
+                }
+            });
+        } catch (MailException e) {
+            // 인증 실패 등 연결 단계 오류는 batch 전체 실패
+            byMessage.values().forEach(outbox -> failures.put(outbox, e));
+        }
+        return failures;
+    }
+
+    /**
+     * 보낸 메일은 지우고, 실패한 메일은 다음 시도 시각을 정하거나 DEAD로 바꾼다.
+     */
+    private void record(List<MailOutbox> batch, Map<MailOutbox, Exception> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        List<MailOutbox> failed = new ArrayList<>();
+        for (MailOutbox outbox : batch) {
+            Exception cause = failures.get(outbox);
+            if (cause == null) {
+                sentIds.add(outbox.getId());
+            } else {
+                outbox.failed(cause.getMessage(), now.plusNanos(backoff(outbox.getAttempts() + 1) * 1_000_000), maxAttempts);
+                failed.add(outbox);
+                log.warn("메일 발송 실패 : outbox {} ({}회) {}", outbox.getId(), outbox.getAttempts(), outbox.getStatus(), cause);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                mailOutboxRepository.deleteSent(sentIds);
+            }
+            if (!failed.isEmpty()) {
+                mailOutboxRepository.saveAll(failed);
+            }
+        });
+    }
+
+    /**
+     * @param attempt : 이번 실패가 몇 번째인지 (1부터)
+     * @return 다음 시도까지 기다릴 시간. backoff * 2^(attempt-1), 최대 maxBackoff
+     */
+    private long backoff(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        return Math.min(maxBackoffMillis, backoffMillis << shift);
+    }
+
+    private SimpleMailMessage toMessage(MailOutbox outbox) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(outbox.getAddress());
+        message.setSubject(outbox.getTitle());
+        message.setText(cipher.decrypt(outbox.getMessage()));
+        if (from != null && !from.isEmpty()) {
+            message.setFrom(from);
+            message.setReplyTo(from);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,102 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.api.MyPageSummaryResponseApi;
+import com.marizoo.user.dto.BadgeDto;
+import com.marizoo.user.dto.BookDto;
+import com.marizoo.user.dto.FavorStoreDto;
+import com.marizoo.user.exception.UserNotFoundException;
+import com.marizoo.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 마이페이지 묶음 조회.
+ * 닉네임, 배지, 예약, 관심 가게를 각각 DTO projection으로 동시에 조회해서
+ * 화면 하나가 HTTP 요청 한 번, DB 지연 한 번으로 끝나게 한다.
+ * 항목마다 제한 시간이 있어 느린 항목 하나가 페이지 전체를 붙잡지 않는다.
+ * 쿼리 자체에도 같은 제한 시간을 걸어서, 응답을 포기한 항목의 쿼리가 스레드와 커넥션을 계속 잡고 있지 않게 한다.
+ * (orTimeout은 바깥 상한일 뿐 쿼리를 멈추지 않는다)
+ */
+@Slf4j
+@Service
+public class MyPageService {
+
+    private static final String NICKNAME = "nickname";
+    private static final String BADGES = "badges";
+    private static final String BOOKS = "books";
+    private static final String STORES = "stores";
+
+    private final UserRepository userRepository;
+    private final ThreadPoolExecutor executor;
+    private final long partTimeoutMillis;
+
+    public MyPageService(UserRepository userRepository,
+                         @Value("${mypage.threads:8}") int threads,
+                         @Value("${mypage.queue-capacity:64}") int queueCapacity,
+                         @Value("${mypage.part-timeout-ms:1000}") long partTimeoutMillis) {
+        this.userRepository = userRepository;
+        this.partTimeoutMillis = partTimeoutMillis;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mypage-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @param userId : 유저 PK
+     * @return 마이페이지 정보. 시간 안에 못 가져온 항목은 unavailable에 표시
+     */
+    public MyPageSummaryResponseApi getSummary(Long userId) {
+        CompletableFuture<String> nickname = part(() -> userRepository.findNicknameById(userId, partTimeoutMillis));
+        CompletableFuture<List<BadgeDto>> badges = part(() -> userRepository.findBadgeDtoList(userId, partTimeoutMillis));
+        CompletableFuture<List<BookDto>> books = part(() -> userRepository.findBookDtoList(userId, partTimeoutMillis));
+        CompletableFuture<List<FavorStoreDto>> stores = part(() -> userRepository.getFavorStoreList(userId, partTimeoutMillis));
+
+        MyPageSummaryResponseApi summary = new MyPageSummaryResponseApi();
+        summary.setNickname(join(nickname, NICKNAME, summary));
+        if (summary.getNickname() == null && !summary.getUnavailable().contains(NICKNAME)) {
+            throw new UserNotFoundException("유저가 없습니다.");
+        }
+        summary.setBadges(join(badges, BADGES, summary));
+        summary.setBooks(join(books, BOOKS, summary));
+        summary.setStores(join(stores, STORES, summary));
+        return summary;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> part(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor)
+                    .orTimeout(partTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T join(CompletableFuture<T> future, String name, MyPageSummaryResponseApi summary) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            log.warn("마이페이지 {} 조회 실패", name, e.getCause() != null ? e.getCause() : e);
+            summary.getUnavailable().add(name);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.marizoo.user.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.marizoo.user.auth.JwtProvider;
+import com.marizoo.user.entity.User;
+import com.marizoo.user.exception.RefreshTokenException;
+import com.marizoo.user.repository.token_repo.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.marizoo.user.constant.JwtConstant.RT_EXP_TIME;
+
+/**
+ * 리프레시 토큰 발급 / 재발급(rotation) / 폐기.
+ * users 테이블은 건드리지 않고 refresh_token 테이블의 한 행만 insert / update / delete 한다.
+ * 이미 교체된 토큰이 다시 오면 탈취로 보고 family 전체를 폐기한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    /**
+     * 로그인 시 새 family로 리프레시 토큰 발급
+     * @param user : 로그인한 유저
+     * @return 리프레시 토큰
+     */
+    @Transactional
+    public String issue(User user) {
+        String familyId = UUID.randomUUID().toString();
+        String refreshToken = JwtProvider.createRefreshToken(user.getUid(), familyId);
+        refreshTokenRepository.insert(familyId, user.getId(), hash(refreshToken), expiresAt());
+        return refreshToken;
+    }
+
+    /**
+     * 리프레시 토큰 재발급. 보낸 토큰이 family의 현재 토큰일 때만 교체된다.
+     * @param refreshJwt : 검증된 리프레시 토큰
+     * @param refreshToken : 리프레시 토큰 원문
+     * @return 새 리프레시 토큰
+     */
+    @Transactional(noRollbackFor = RefreshTokenException.class)
+    public String rotate(DecodedJWT refreshJwt, String refreshToken) {
+        String familyId = refreshJwt.getClaim(JwtProvider.CLAIM_FAMILY).asString();
+        if (familyId == null) {
+            throw new RefreshTokenException("리프레시 토큰 정보가 잘못되었습니다.");
+        }
+
+        String newRefreshToken = JwtProvider.createRefreshToken(refreshJwt.getSubject(), familyId);
+        int rotated = refreshTokenRepository.rotate(familyId, hash(refreshToken), hash(newRefreshToken),
+                expiresAt(), LocalDateTime.now());
+        if (rotated == 0) {
+            // 이미 교체된 토큰의 재사용이거나 로그아웃/만료된 family
+            if (refreshTokenRepository.deleteFamily(familyId) > 0) {
+                log.warn("리프레시 토큰 재사용 감지, family 폐기, familyId = {}", familyId);
+            }
+            throw new RefreshTokenException("리프레시 토큰 정보가 잘못되었습니다.");
+        }
+        return newRefreshToken;
+    }
+
+    /**
+     * @param userId : 유저 PK. 유저의 모든 family를 폐기한다
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteAllByUser(userId);
+    }
+
+    /**
+     * 만료된 토큰 정리
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-token.sweep-interval-ms:600000}")
+    @Transactional
+    public void sweep() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("만료된 리프레시 토큰 정리, count = {}", deleted);
+        }
+    }
+
+    private static LocalDateTime expiresAt() {
+        return LocalDateTime.now().plusNanos(RT_EXP_TIME * 1_000_000);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.marizoo.user.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.marizoo.user.entity.RevokedToken;
+import com.marizoo.user.repository.token_repo.RevokedTokenRepository;
+import com.marizoo.user.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.marizoo.user.constant.JwtConstant.AT_EXP_TIME;
+
+/**
+ * 엑세스 토큰 폐기(denylist).
+ * 폐기된 jti를 revoked_token 테이블에 저장하고, 메모리에는 토큰 만료 시각 기준 bucket별 Bloom filter로 들고 있다.
+ * 요청마다 토큰의 만료 bucket filter 하나만 보며, filter가 맞다고 할 때만 테이블로 확인한다.
+ * 엑세스 토큰 수명이 AT_EXP_TIME이므로 살아 있는 bucket은 두세 개뿐이고, 지난 bucket은 통째로 버린다.
+ * 다른 인스턴스에서 폐기한 토큰은 주기적으로 테이블에서 읽어 온다.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final long BUCKET_MILLIS = AT_EXP_TIME;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedPerBucket;
+    private final double falsePositiveRate;
+    private final long syncOverlapMillis;
+
+    // 만료 bucket 번호 → 그 bucket 안에 만료되는 폐기 토큰 filter
+    private final Map<Long, BloomFilter> buckets = new ConcurrentHashMap<>();
+    // 테이블로 확인한 폐기 토큰 (jti → 만료 시각). 같은 토큰이 반복해서 와도 다시 조회하지 않는다
+    private final Map<String, Long> confirmed = new ConcurrentHashMap<>();
+    // 마지막 동기화 시작 시각. null이면 아직 한 번도 읽지 않음
+    private volatile LocalDateTime lastSyncedAt;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${auth.revocation.expected-per-bucket:10000}") long expectedPerBucket,
+                                  @Value("${auth.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${auth.revocation.sync-overlap-ms:30000}") long syncOverlapMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlapMillis = syncOverlapMillis;
+    }
+
+    /**
+     * @param jwt : 검증된 엑세스 토큰
+     * @return 폐기된 토큰인지. jti가 없는 이전 형식의 토큰은 폐기할 수 없으므로 false
+     */
+    public boolean isRevoked(DecodedJWT jwt) {
+        String jti = jwt.getId();
+        Date expiresAt = jwt.getExpiresAt();
+        if (jti == null || expiresAt == null) {
+            return false;
+        }
+
+        BloomFilter filter = buckets.get(bucketOf(expiresAt.getTime()));
+        if (filter == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        if (confirmed.containsKey(jti)) {
+            return true;
+        }
+        if (revokedTokenRepository.existsById(jti)) {
+            confirmed.put(jti, expiresAt.getTime());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param jwt : 폐기할 엑세스 토큰
+     */
+    @Transactional
+    public void revoke(DecodedJWT jwt) {
+        String jti = jwt.getId();
+        Date expiresAt = jwt.getExpiresAt();
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokenRepository.insertIgnore(jti, toLocalDateTime(expiresAt.getTime()), LocalDateTime.now());
+        remember(jti, expiresAt.getTime());
+        confirmed.put(jti, expiresAt.getTime());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        sync();
+    }
+
+    /**
+     * 다른 인스턴스에서 폐기된 토큰을 가져오고 지난 bucket을 버린다.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:5000}",
+            initialDelayString = "${auth.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime syncStartedAt = LocalDateTime.now();
+        // 커밋 지연과 인스턴스 간 시계 차이를 감안해 앞 구간과 겹치게 읽는다
+        LocalDateTime since = lastSyncedAt == null
+                ? LocalDateTime.of(1970, 1, 1, 0, 0) : lastSyncedAt.minusNanos(syncOverlapMillis * 1_000_000);
+        try {
+            for (RevokedToken revoked : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, syncStartedAt)) {
+                remember(revoked.getJti(), toEpochMillis(revoked.getExpiresAt()));
+            }
+            lastSyncedAt = syncStartedAt;
+        } catch (Exception e) {
+            log.error("폐기 토큰 동기화 실패", e);
+        }
+
+        long now = System.currentTimeMillis();
+        long currentBucket = bucketOf(now);
+        buckets.keySet().removeIf(bucket -> bucket < currentBucket);
+        confirmed.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /**
+     * 만료된 폐기 토큰 정리
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sweep-interval-ms:600000}")
+    @Transactional
+    public void sweep() {
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private void remember(String jti, long expiresAtMillis) {
+        buckets.computeIfAbsent(bucketOf(expiresAtMillis), bucket -> new BloomFilter(expectedPerBucket, falsePositiveRate))
+                .put(jti);
+    }
+
+    private static long bucketOf(long epochMillis) {
+        return epochMillis / BUCKET_MILLIS;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,200 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.entity.User;
+import com.marizoo.user.repository.UserRepository;
+import com.marizoo.user.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 아이디/닉네임 사용 가능 여부. 가입 화면의 중복 확인(읽기 전용)에만 쓰고, 저장 전 중복 확인은 DB로 한다.
+ * 가입 화면은 글자를 칠 때마다 중복 확인을 하므로, 가입된 값을 Bloom filter로 들고 있다가
+ * filter에 없으면 DB를 보지 않고 바로 사용 가능으로 답하고, 있을 수도 있을 때만 exists 쿼리로 확인한다.
+ *
+ * 탈퇴하거나 바꾼 이전 값은 filter에서 뺄 수 없으므로 남아 있다가 주기적인 재생성 때 사라진다. (그 사이에는 DB로 확인)
+ * 다른 인스턴스에서 가입/변경한 값은 last_modified_date 기준으로 짧은 주기마다 읽어 온다.
+ */
+@Slf4j
+@Service
+public class UserAvailabilityService {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long minExpectedUsers;
+    private final double falsePositiveRate;
+    private final long syncOverlapMillis;
+
+    // null이면 아직 로딩 전이므로 모두 DB로 확인
+    private volatile Filters filters;
+    // filters 교체와 추가가 엇갈리지 않도록
+    private final Object lock = new Object();
+    // 재생성 중에 추가된 유저. 새 filter에도 넣어야 한다
+    private List<String[]> recording;
+    private volatile LocalDateTime lastSyncedAt;
+
+    public UserAvailabilityService(UserRepository userRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   @Value("${user.availability.min-expected-users:100000}") long minExpectedUsers,
+                                   @Value("${user.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${user.availability.sync-overlap-ms:30000}") long syncOverlapMillis) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.minExpectedUsers = minExpectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlapMillis = syncOverlapMillis;
+    }
+
+    public boolean isUidAvailable(String uid) {
+        Filters current = filters;
+        if (current != null && uid != null && !current.uids.mightContain(normalize(uid))) {
+            return true;
+        }
+        return !userRepository.existsByUid(uid);
+    }
+
+    public boolean isNicknameAvailable(String nickname) {
+        Filters current = filters;
+        if (current != null && nickname != null && !current.nicknames.mightContain(normalize(nickname))) {
+            return true;
+        }
+        return !userRepository.existsByNickname(nickname);
+    }
+
+    /**
+     * 가입하거나 정보를 바꾼 유저의 현재 값을 반영한다.
+     */
+    public void register(User user) {
+        register(user.getUid(), user.getNickname());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * users 테이블을 스트리밍으로 읽어 filter를 새로 만든다. 탈퇴/변경으로 남은 이전 값이 여기서 정리된다.
+     */
+    @Scheduled(fixedDelayString = "${user.availability.rebuild-interval-ms:3600000}",
+            initialDelayString = "${user.availability.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        synchronized (lock) {
+            recording = new ArrayList<>();
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Long userCount = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+            // 가입이 늘어도 다음 재생성까지 오탐률이 유지되도록 여유 있게 잡는다
+            Filters fresh = new Filters(Math.max(minExpectedUsers, (userCount == null ? 0 : userCount) * 2), falsePositiveRate);
+            scan("select uid, nickname from users", null, fresh);
+
+            synchronized (lock) {
+                recording.forEach(values -> fresh.put(values[0], values[1]));
+                filters = fresh;
+                lastSyncedAt = startedAt;
+            }
+            log.info("가입 정보 filter 생성 : {}명", userCount);
+        } catch (Exception e) {
+            log.error("가입 정보 filter 생성 실패", e);
+        } finally {
+            synchronized (lock) {
+                recording = null;
+            }
+        }
+    }
+
+    /**
+     * 다른 인스턴스에서 가입하거나 바꾼 값을 가져온다.
+     */
+    @Scheduled(fixedDelayString = "${user.availability.sync-interval-ms:5000}",
+            initialDelayString = "${user.availability.sync-interval-ms:5000}")
+    public void sync() {
+        Filters current = filters;
+        LocalDateTime since = lastSyncedAt;
+        if (current == null || since == null) {
+            return;
+        }
+        LocalDateTime syncStartedAt = LocalDateTime.now();
+        try {
+            // 커밋 지연과 인스턴스 간 시계 차이를 감안해 앞 구간과 겹치게 읽는다
+            scan("select uid, nickname from users where last_modified_date >= ?",
+                    Timestamp.valueOf(since.minusNanos(syncOverlapMillis * 1_000_000)), current);
+            lastSyncedAt = syncStartedAt;
+        } catch (Exception e) {
+            log.error("가입 정보 filter 동기화 실패", e);
+        }
+    }
+
+    private void register(String uid, String nickname) {
+        synchronized (lock) {
+            Filters current = filters;
+            if (current != null) {
+                current.put(uid, nickname);
+            }
+            if (recording != null) {
+                recording.add(new String[]{uid, nickname});
+            }
+        }
+    }
+
+    /**
+     * 행을 한 번에 올리지 않고 MySQL 스트리밍 결과로 한 행씩 넣는다.
+     */
+    private void scan(String sql, Timestamp since, Filters target) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+            }
+            return ps;
+        }, rs -> {
+            target.put(rs.getString(1), rs.getString(2));
+        });
+    }
+
+    /**
+     * DB 비교 규칙(대소문자, 악센트, 끝 공백 무시)보다 더 많이 같게 보도록 접는다.
+     * 더 많이 같게 보는 쪽은 오탐만 늘 뿐 이미 있는 값을 없다고 하지는 않는다.
+     */
+    static String normalize(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(folded).replaceAll("").toLowerCase(Locale.ROOT).strip();
+    }
+
+    private static final class Filters {
+        private final BloomFilter uids;
+        private final BloomFilter nicknames;
+
+        private Filters(long expectedInsertions, double falsePositiveRate) {
+            this.uids = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.nicknames = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        private void put(String uid, String nickname) {
+            if (uid != null) {
+                uids.put(normalize(uid));
+            }
+            if (nickname != null) {
+                nicknames.put(normalize(nickname));
+            }
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package com.marizoo.user.service;
 
+import com.marizoo.user.api.CursorPageApi;
 import com.marizoo.user.api.MyPageRequestApi;
 import com.marizoo.user.api.MyPageResponseApi;
 import com.marizoo.user.api.PwdChangeRequestApi;
 import com.marizoo.user.api.WatchEndRequestApi;
+import com.marizoo.user.auth.UserSnapshotCache;
 import com.marizoo.user.dto.BadgeDto;
 import com.marizoo.user.dto.BookDto;
 import com.marizoo.user.dto.FavorStoreDto;
 import com.marizoo.user.dto.MailDto;
-import com.marizoo.user.entity.Badge;
+import com.marizoo.user.entity.BookStatus;
 import com.marizoo.user.entity.User;
-import com.marizoo.user.entity.UsersBadge;
 import com.marizoo.user.entity.UsersPlay;
 import com.marizoo.user.exception.AlreadyJoinException;
 import com.marizoo.user.exception.BadgeNotFoundException;
@@ -22,17 +23,16 @@ import com.marizoo.user.repository.UsersBadgeRepository;
 import com.marizoo.user.repository.reservation_repo.UsersPlayRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-
-import static com.marizoo.user.constant.BadgeCondition.*;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -40,25 +40,40 @@ import static com.marizoo.user.constant.BadgeCondition.*;
 @Transactional(readOnly = true)
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final UserRepository userRepository;
     private final UsersPlayRepository usersPlayRepository;
     private final BadgeRepository badgeRepository;
     private final UsersBadgeRepository usersBadgeRepository;
+    private final WatchStatAggregator watchStatAggregator;
+    private final UserSnapshotCache userSnapshotCache;
+    private final RefreshTokenService refreshTokenService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
 
     private final BCryptPasswordEncoder encoder;
 
+    /**
+     * @return 이미 가입된 이메일이면 true. 가입 처리에서 쓰므로 filter 없이 DB로 확인한다
+     */
     public boolean isDuplicatedEmail(String email) {
-        return userRepository.findByEmail(email).isPresent() == true ? true : false;
+        return userRepository.existsByEmail(email);
     }
 
+    /**
+     * @return 사용 가능한 아이디면 true
+     */
     public boolean isDuplicatedUid(String uid) {
-        return !userRepository.findByUid(uid).isPresent();
+        return userAvailabilityService.isUidAvailable(uid);
     }
 
+    /**
+     * @return 사용 가능한 닉네임이면 true
+     */
     public boolean isDuplicatedNickname(String nickname) {
-        return !userRepository.findByNickname(nickname).isPresent();
+        return userAvailabilityService.isNicknameAvailable(nickname);
     }
 
     public String findUidByEmail(String email) {
@@ -67,6 +82,11 @@ public class UserService {
         ).getUid();
     }
 
+    /**
+     * 임시 비밀번호로 바꾸고 안내 메일을 outbox에 넣는다.
+     * 비밀번호 변경과 메일 저장이 함께 커밋되며, 실제 발송은 MailOutboxService가 한다.
+     */
+    @Transactional
     public void createMailAndChangePwd(String email) {
         String tmpPwd = UUID.randomUUID().toString().substring(0, 10);
         String encodePwd = encoder.encode(tmpPwd);
@@ -77,18 +97,7 @@ public class UserService {
 
         updatePwd(encodePwd, email);
 
-        mailSend(mailDto);
-    }
-
-    public void mailSend(MailDto mailDTO) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(mailDTO.getAddress());
-        message.setSubject(mailDTO.getTitle());
-        message.setText(mailDTO.getMessage());
-        message.setFrom("보내는 쪽의 메일 주소");
-        message.setReplyTo("보내는 쪽의 메일 주소");
-
-        mailSender.send(message);
+        mailOutboxService.enqueue(mailDto);
     }
 
     @Transactional
@@ -97,6 +106,7 @@ public class UserService {
                 () -> new UserNotFoundException("해당하는 유저가 없습니다.")
         );
         user.setPwd(pwd);
+        userSnapshotCache.evict(user.getUid());
     }
 
     public MyPageResponseApi getMyPageInfo(Long userId, String pwd) {
@@ -124,17 +134,20 @@ public class UserService {
                 () -> new UserNotFoundException("유저가 없습니다.")
         );
 
-        if (userRepository.findByNickname(myPageRequest.getNickname()).isPresent()) {
+        // 저장 전 중복 확인이므로 filter 없이 DB로 확인한다 (다른 인스턴스의 변경이 filter에 아직 없을 수 있다)
+        if (userRepository.existsByNickname(myPageRequest.getNickname())) {
             throw new AlreadyJoinException("이미 존재하는 닉네임입니다.");
         }
 
-        if (userRepository.findByEmail(myPageRequest.getEmail()).isPresent()) {
+        if (userRepository.existsByEmail(myPageRequest.getEmail())) {
             throw new AlreadyJoinException("이미 존재하는 이메일입니다.");
         }
 
         user.setNickname(myPageRequest.getNickname());
         user.setPhoneNumber(myPageRequest.getPhoneNumber());
         user.setEmail(myPageRequest.getEmail());
+        userSnapshotCache.evict(user.getUid());
+        userAvailabilityService.register(user);
     }
 
     @Transactional
@@ -145,6 +158,7 @@ public class UserService {
 
         if (encoder.matches(request.getPastPwd(), user.getPwd())) {
             user.setPwd(encoder.encode(request.getChangePwd()));
+            userSnapshotCache.evict(user.getUid());
         } else {
             throw new PasswordNotMatchException("기존 비밀번호가 일치하지 않습니다.");
         }
@@ -152,7 +166,12 @@ public class UserService {
 
     @Transactional
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new UserNotFoundException("유저가 없습니다.")
+        );
+        refreshTokenService.revokeAll(userId);
+        userRepository.delete(user);
+        userSnapshotCache.evict(user.getUid());
     }
 
     public List<FavorStoreDto> getFavorStoreList(Long userId) {
@@ -170,100 +189,79 @@ public class UserService {
     }
 
     /**
-     * 배지 획득
+     * 배지 획득. 이미 가진 배지면 아무것도 하지 않는다. (대량 지급과 같은 insert ignore)
      */
     @Transactional
     public void addBadge(Long userId, Long badgeId) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException("해당하는 유저가 없습니다.")
-        );
-        Badge badge = badgeRepository.findById(badgeId).orElseThrow(
-                () -> new BadgeNotFoundException("해당하는 배지가 없습니다.")
-        );
-
-        UsersBadge usersBadge = UsersBadge.createUsersBadge(badge);
-        user.addBadge(usersBadge);
-    }
-
-    @Transactional
-    public void bulkAddBadge(List<Long> userIdList, Long badgeId) {
-        int effectedRowCnt = usersBadgeRepository.bulkAddBadge(userIdList, badgeId);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("해당하는 유저가 없습니다.");
+        }
+        if (!badgeRepository.existsById(badgeId)) {
+            throw new BadgeNotFoundException("해당하는 배지가 없습니다.");
+        }
+        usersBadgeRepository.bulkAddBadge(badgeId, new long[]{userId}, 1);
     }
 
     public List<BadgeDto> getBadgeList(Long userId) {
-        User user = userRepository.getBadgeList(userId);
-        List<BadgeDto> badgeDtoList = new ArrayList<>();
-        for (UsersBadge usersBadge : user.getBadgeList()) {
-            badgeDtoList.add(new BadgeDto(
-                    usersBadge.getBadge().getImg(),
-                    usersBadge.getBadge().getBadgeType(),
-                    usersBadge.getBadge().getDescription())
-            );
-        }
-        return badgeDtoList;
+        return userRepository.findBadgeDtoList(userId);
     }
 
-    @Transactional
+    /**
+     * 방송 시청 종료 시 누적 카운터 증가분을 모아 둔다.
+     * DB 반영과 배지 지급은 WatchStatAggregator가 주기적으로 한꺼번에 한다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateCountAndWatchTimeAcc(WatchEndRequestApi watchEndRequestApi) {
-        User user = userRepository.findById(watchEndRequestApi.getUserId()).get();
-
-        // 배지 획득 조건 달성 체크
-        Long plusWatchTime = user.getWatchTimeAcc();
-        for (int i = 1; i <= watchEndRequestApi.getWatchTime(); i++) {
-            plusWatchTime += i;
-            if (watch.containsKey(plusWatchTime)) {
-                Badge badge = badgeRepository.findById(watch.get(plusWatchTime)).orElseThrow(
-                        () -> new BadgeNotFoundException("해당하는 배지가 없습니다.")
-                );
-                UsersBadge.createUsersBadge(badge);
-            }
+        if (watchEndRequestApi.getUserId() == null) {
+            throw new UserNotFoundException("해당하는 유저가 없습니다.");
         }
+        watchStatAggregator.add(watchEndRequestApi.getUserId(),
+                watchEndRequestApi.getWatchTime(),
+                watchEndRequestApi.getEffectCount(),
+                watchEndRequestApi.getFeedCount());
+    }
 
-        user.setWatchTimeAcc(plusWatchTime);
-
-        Long plusEffectClick = user.getEffectClickAcc();
-        for (int i = 1; i <= watchEndRequestApi.getEffectCount(); i++) {
-            plusEffectClick += i;
-            if (effect.containsKey(plusEffectClick)) {
-                Badge badge = badgeRepository.findById(effect.get(plusEffectClick)).orElseThrow(
-                        () -> new BadgeNotFoundException("해당하는 배지가 없습니다.")
-                );
-                UsersBadge.createUsersBadge(badge);
-            }
-        }
+    public List<BookDto> getBookList(Long userId) {
+        return userRepository.findBookDtoList(userId);
+    }
 
-        user.setEffectClickAcc(plusEffectClick);
-
-        Long plusFeedClick = user.getFeedClickAcc();
-        for (int i = 1; i <= watchEndRequestApi.getFeedCount(); i++) {
-            plusFeedClick += i;
-            if (feed.containsKey(plusFeedClick)) {
-                Badge badge = badgeRepository.findById(feed.get(plusFeedClick)).orElseThrow(
-                        () -> new BadgeNotFoundException("해당하는 배지가 없습니다.")
-                );
-                UsersBadge.createUsersBadge(badge);
-            }
-        }
+    /**
+     * 예약 목록 keyset 페이지 조회
+     * @param status : 예약 상태. null이면 전체
+     * @param from : 체험 시작 시각 하한(포함). null이면 제한 없음
+     * @param to : 체험 시작 시각 상한(미포함). null이면 제한 없음
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
+     */
+    public CursorPageApi<BookDto> getBookPage(Long userId, BookStatus status, LocalDateTime from, LocalDateTime to, Long cursor, int size) {
+        int limit = pageSize(size);
+        return toCursorPage(userRepository.findBookPage(userId, status, from, to, cursor, limit + 1), limit, BookDto::getId);
+    }
 
-        user.setFeedClickAcc(plusFeedClick);
+    /**
+     * 관심 가게 keyset 페이지 조회
+     * @param cursor : 이전 페이지의 nextCursor. null이면 첫 페이지
+     * @param size : 페이지 크기
+     */
+    public CursorPageApi<FavorStoreDto> getFavorStorePage(Long userId, Long cursor, int size) {
+        int limit = pageSize(size);
+        return toCursorPage(userRepository.findFavorStorePage(userId, cursor, limit + 1), limit, FavorStoreDto::getAnimalStoreId);
     }
 
-    public List<BookDto> getBookList(Long userId) {
-        User user = userRepository.getBookList(userId);
-        List<BookDto> bookDtoList = new ArrayList<>();
-        for (UsersPlay usersPlay : user.getBookList()) {
-            bookDtoList.add(new BookDto(
-                    usersPlay.getId(),
-                    usersPlay.getPlay().getPlayDateTime(),
-                    usersPlay.getTotalVisitor(),
-                    usersPlay.getPlay().getAnimalStore().getStoreName(),
-                    usersPlay.getPlay().getAnimalStore().getTel(),
-                    usersPlay.getPlay().getImg(),
-                    usersPlay.getStatus(),
-                    usersPlay.getPlay().getTitle(),
-                    usersPlay.getPlay().getAnimalStore().getId()
-            ));
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * @param rows : limit + 1개까지 조회한 행. limit보다 많으면 다음 페이지가 있다
+     * @param limit : 페이지 크기
+     * @param key : 다음 페이지 커서로 쓸 PK
+     */
+    private <T> CursorPageApi<T> toCursorPage(List<T> rows, int limit, Function<T, Long> key) {
+        if (rows.size() <= limit) {
+            return new CursorPageApi<>(rows, null, false);
         }
-        return bookDtoList;
+        List<T> content = new ArrayList<>(rows.subList(0, limit));
+        return new CursorPageApi<>(content, String.valueOf(key.apply(content.get(limit - 1))), true);
     }
-}
\ No newline at end of file
+}
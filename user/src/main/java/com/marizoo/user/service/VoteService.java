@@ -0,0 +1,438 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.api.broadcast_api.VoteTallyApi;
+import com.marizoo.user.cache.LiveBroadcastRegistry;
+import com.marizoo.user.cache.VoteTally;
+import com.marizoo.user.dto.broadcast_dto.FeedTallyDto;
+import com.marizoo.user.entity.Broadcast;
+import com.marizoo.user.entity.Feed;
+import com.marizoo.user.entity.FeedVote;
+import com.marizoo.user.entity.Vote;
+import com.marizoo.user.repository.broadcast_repo.BroadcastRepository;
+import com.marizoo.user.repository.feed_repo.FeedRepository;
+import com.marizoo.user.repository.vote_repo.VoteCounterRepository;
+import com.marizoo.user.repository.vote_repo.VoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 방송 중 먹이 투표를 서버에서 실시간으로 집계한다.
+ * 투표마다 DB에 쓰지 않고 먹이별 메모리 카운터(LongAdder)만 올리며, 집계는 일정 주기로만 구독자에게 보낸다.
+ * 투표를 시작하면 Vote / FeedVote를 바로 만들고, 인스턴스가 모은 표는 일정 주기로 늘어난 만큼만 count = count + ? 로 더한다.
+ * 여러 인스턴스가 같은 방송의 표를 받아도 서로 덮어쓰지 않고, 재시작해도 반영한 표는 남는다.
+ * 실시간 집계는 집계를 만들 때의 DB 득표 수에 이 인스턴스가 받은 표를 더한 값이다.
+ * 방송이 끝나면(종료 알림 또는 레지스트리 동기화에서 빠진 경우) 투표를 닫고, 닫히기 직전의 표까지 반영한 뒤 최종 집계를 저장하고 구독을 닫는다.
+ */
+@Slf4j
+@Service
+public class VoteService {
+
+    private static final long SSE_TIMEOUT = 60 * 60 * 1000L;
+
+    private final VoteRepository voteRepository;
+    private final VoteCounterRepository voteCounterRepository;
+    private final FeedRepository feedRepository;
+    private final BroadcastRepository broadcastRepository;
+    private final LiveBroadcastRegistry liveBroadcastRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final long closeGraceNanos;
+
+    // 이 인스턴스가 투표를 받았거나 조회한 방송의 집계
+    private final Map<Long, VoteTally> tallies = new ConcurrentHashMap<>();
+    // 닫혔지만 최종 반영 전인 집계
+    private final Queue<VoteTally> closing = new ConcurrentLinkedQueue<>();
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // 마지막으로 구독자에게 보낸 총 투표 수. 변화가 없으면 보내지 않는다.
+    private final Map<Long, Long> pushedTotals = new ConcurrentHashMap<>();
+    // 주기 반영, 종료 처리, 종료 시 반영이 겹치지 않도록. 집계의 반영 기록(flushed)은 이 락 안에서만 바뀐다
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public VoteService(VoteRepository voteRepository,
+                       VoteCounterRepository voteCounterRepository,
+                       FeedRepository feedRepository,
+                       BroadcastRepository broadcastRepository,
+                       LiveBroadcastRegistry liveBroadcastRegistry,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${vote.close-grace-ms:1000}") long closeGraceMillis) {
+        this.voteRepository = voteRepository;
+        this.voteCounterRepository = voteCounterRepository;
+        this.feedRepository = feedRepository;
+        this.broadcastRepository = broadcastRepository;
+        this.liveBroadcastRegistry = liveBroadcastRegistry;
+        // 방송 종료 알림의 트랜잭션과 상관없이 표 반영은 따로 커밋한다
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.closeGraceNanos = TimeUnit.MILLISECONDS.toNanos(closeGraceMillis);
+    }
+
+    /**
+     * 투표 시작. 득표 수 0인 Vote / FeedVote를 만들어 방송에 연결한다.
+     * @param broadcastId : 방송 PK
+     * @param title : 투표 제목
+     * @param feedIdList : 투표 옵션 먹이 PK list
+     */
+    @Transactional
+    public void openVote(Long broadcastId, String title, List<Long> feedIdList) {
+        if (!isLive(broadcastId)) {
+            throw new RuntimeException("방송 중이 아닙니다.");
+        }
+        if (feedIdList == null || feedIdList.isEmpty()) {
+            throw new RuntimeException("투표할 먹이가 없습니다.");
+        }
+        List<Long> feedIds = new ArrayList<>(new LinkedHashSet<>(feedIdList));
+        Map<Long, Feed> feeds = new HashMap<>();
+        for (Feed feed : feedRepository.findAllById(feedIds)) {
+            feeds.put(feed.getId(), feed);
+        }
+        if (feeds.size() != feedIds.size()) {
+            throw new RuntimeException("먹이가 없습니다.");
+        }
+        Broadcast broadcast = broadcastRepository.findById(broadcastId)
+                .orElseThrow(() -> new RuntimeException("방송 중이 아닙니다."));
+        if (broadcast.getVote() != null) {
+            throw new RuntimeException("이미 투표가 진행 중입니다.");
+        }
+
+        List<FeedVote> feedVoteList = new ArrayList<>();
+        for (Long feedId : feedIds) {
+            feedVoteList.add(FeedVote.createFeedVote(feeds.get(feedId), 0));
+        }
+        Vote vote = Vote.createVote(title, feedVoteList);
+        voteRepository.save(vote);
+        broadcast.setVote(vote);
+    }
+
+    /**
+     * 투표
+     * @param broadcastId : 방송 PK
+     * @param feedId : 먹이 PK
+     * @return 집계되었는지. 방송 중이 아니거나 진행 중인 투표가 없으면 false
+     */
+    public boolean vote(Long broadcastId, Long feedId) {
+        if (!isLive(broadcastId)) {
+            return false;
+        }
+        VoteTally tally = findTally(broadcastId);
+        return tally != null && tally.vote(feedId);
+    }
+
+    /**
+     * @param broadcastId : 방송 PK
+     * @return 현재 집계. 방송 중이 아니거나 진행 중인 투표가 없으면 null
+     */
+    public VoteTallyApi getTally(Long broadcastId) {
+        if (!isLive(broadcastId)) {
+            return null;
+        }
+        VoteTally tally = findTally(broadcastId);
+        return tally != null ? toApi(tally) : null;
+    }
+
+    /**
+     * 집계 구독
+     * @param broadcastId : 방송 PK
+     * @return 집계가 바뀔 때마다 tally 이벤트를 보내는 emitter
+     * @throws IllegalArgumentException 방송 중이 아닌 경우
+     */
+    public SseEmitter subscribe(Long broadcastId) {
+        if (!isLive(broadcastId)) {
+            throw new IllegalArgumentException("방송 중이 아닙니다.");
+        }
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(broadcastId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        VoteTally tally = findTally(broadcastId);
+        if (tally != null) {
+            send(emitter, toApi(tally));
+        }
+        return emitter;
+    }
+
+    /**
+     * 변한 집계만 일정 주기로 구독자에게 보낸다. 메모리 카운터만 읽는다.
+     */
+    @Scheduled(fixedRateString = "${vote.push-interval-ms:500}")
+    public void pushTallies() {
+        for (VoteTally tally : tallies.values()) {
+            List<SseEmitter> emitters = subscribers.get(tally.getBroadcastId());
+            if (emitters == null || emitters.isEmpty()) {
+                continue;
+            }
+            long total = tally.getTotal();
+            Long pushed = pushedTotals.put(tally.getBroadcastId(), total);
+            if (pushed != null && pushed == total) {
+                continue;
+            }
+            VoteTallyApi api = toApi(tally);
+            for (SseEmitter emitter : emitters) {
+                send(emitter, api);
+            }
+        }
+    }
+
+    /**
+     * 늘어난 표만 DB에 더한다. 늘어난 표가 없으면 DB를 건드리지 않는다.
+     * 방송 목록에서 빠진(종료 알림이 유실된 경우 포함) 방송의 투표는 닫고, 닫힌 지 close-grace-ms가 지난 투표는 최종 반영한다.
+     */
+    @Scheduled(fixedDelayString = "${vote.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Set<Long> ended = new HashSet<>();
+            for (Long broadcastId : tallies.keySet()) {
+                if (isEnded(broadcastId)) {
+                    ended.add(broadcastId);
+                }
+            }
+            for (Long broadcastId : subscribers.keySet()) {
+                if (isEnded(broadcastId)) {
+                    ended.add(broadcastId);
+                }
+            }
+            ended.forEach(this::close);
+
+            for (VoteTally tally : tallies.values()) {
+                write(tally);
+            }
+            long now = System.nanoTime();
+            for (VoteTally tally : closing) {
+                if (now - tally.getClosedAtNanos() >= closeGraceNanos) {
+                    finish(tally);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 방송 종료 시 투표를 닫는다. 최종 집계 저장과 구독 종료는 다음 반영 주기에 한다.
+     * @param broadcastId : 방송 PK
+     */
+    public void endVote(Long broadcastId) {
+        close(broadcastId);
+    }
+
+    /**
+     * 종료 전에 남은 표를 반영하고, 닫힌 투표는 기다리지 않고 최종 반영한다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            tallies.values().forEach(this::write);
+            for (VoteTally tally : closing) {
+                finish(tally);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 집계를 목록에서 빼고 더 이상 표를 받지 않게 한다.
+     * 닫히기 직전에 tally.vote를 통과한 표가 카운터에 더해질 수 있으므로 바로 반영하지 않고 closing에 둔다.
+     * 집계도 닫히는 중인 집계도 없으면 구독만 닫는다.
+     */
+    private void close(Long broadcastId) {
+        VoteTally tally = tallies.remove(broadcastId);
+        if (tally != null) {
+            tally.close();
+            closing.add(tally);
+            return;
+        }
+        if (closing.stream().noneMatch(closed -> closed.getBroadcastId().equals(broadcastId))) {
+            pushedTotals.remove(broadcastId);
+            completeAll(subscribers.remove(broadcastId));
+        }
+    }
+
+    /**
+     * 닫힌 집계의 남은 표를 반영하고 최종 집계를 저장한 뒤 구독자에게 보내고 구독을 닫는다.
+     * 반영에 실패하면 closing에 남겨 다음 주기에 다시 한다.
+     */
+    private void finish(VoteTally tally) {
+        if (!write(tally)) {
+            return;
+        }
+        Long broadcastId = tally.getBroadcastId();
+        Map<Long, Long> counts;
+        try {
+            counts = transactionTemplate.execute(status -> saveFinalTally(tally));
+        } catch (Exception e) {
+            log.error("투표 최종 집계 저장 실패, broadcastId = {}", broadcastId, e);
+            return;
+        }
+        closing.remove(tally);
+        pushedTotals.remove(broadcastId);
+        List<SseEmitter> emitters = subscribers.remove(broadcastId);
+        if (emitters != null && counts != null) {
+            VoteTallyApi finalTally = toApi(tally, counts);
+            for (SseEmitter emitter : emitters) {
+                send(emitter, finalTally);
+            }
+        }
+        completeAll(emitters);
+    }
+
+    /**
+     * 모든 인스턴스가 더한 DB 득표 수를 최종 집계로 삼는다.
+     * owner 서비스가 방송 종료 시 클라이언트 집계로 새 투표를 연결했으면 그 득표 수를 서버 집계로 덮어쓴다.
+     * 다른 인스턴스도 각자 반영한 뒤 같은 DB 값으로 덮어쓰므로, 마지막에 끝난 인스턴스의 값이 전체 집계가 된다.
+     * @return 먹이 pk → 최종 득표 수 (투표 옵션 순서)
+     */
+    private Map<Long, Long> saveFinalTally(VoteTally tally) {
+        Map<Long, Long> stored = voteCounterRepository.findCounts(tally.getVoteId());
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (Long feedId : tally.snapshot().keySet()) {
+            counts.put(feedId, stored.getOrDefault(feedId, 0L));
+        }
+
+        Broadcast broadcast = broadcastRepository.findById(tally.getBroadcastId()).orElse(null);
+        if (broadcast == null) {
+            log.warn("투표 집계를 저장할 방송이 없음, broadcastId = {}", tally.getBroadcastId());
+            return counts;
+        }
+        Vote vote = broadcast.getVote();
+        if (vote == null) {
+            voteRepository.findById(tally.getVoteId()).ifPresent(broadcast::setVote);
+            return counts;
+        }
+        if (vote.getId().equals(tally.getVoteId())) {
+            return counts;
+        }
+
+        Map<Long, Long> missing = new LinkedHashMap<>(counts);
+        for (FeedVote feedVote : vote.getFeedVoteList()) {
+            Long count = missing.remove(feedVote.getFeed().getId());
+            if (count != null) {
+                feedVote.setCount(toCount(count));
+            }
+        }
+        for (Feed feed : feedRepository.findAllById(missing.keySet())) {
+            vote.addFeedVote(FeedVote.createFeedVote(feed, toCount(missing.get(feed.getId()))));
+        }
+        return counts;
+    }
+
+    /**
+     * @return 반영할 표가 없었거나 반영에 성공했는지
+     */
+    private boolean write(VoteTally tally) {
+        Map<Long, Long> delta = tally.drainDelta();
+        if (delta.isEmpty()) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> voteCounterRepository.addCounts(tally.getVoteId(), delta));
+            return true;
+        } catch (Exception e) {
+            // 롤백되었으므로 다음 주기에 다시 반영한다
+            log.error("투표 반영 실패, broadcastId = {}", tally.getBroadcastId(), e);
+            tally.restore(delta);
+            return false;
+        }
+    }
+
+    /**
+     * @return 이 인스턴스의 집계. 없으면 DB에서 방송에 연결된 투표를 읽는다. 진행 중인 투표가 없으면 null
+     */
+    private VoteTally findTally(Long broadcastId) {
+        VoteTally tally = tallies.get(broadcastId);
+        if (tally != null) {
+            return tally;
+        }
+        VoteTally loaded = transactionTemplate.execute(status -> loadTally(broadcastId));
+        if (loaded == null) {
+            return null;
+        }
+        VoteTally previous = tallies.putIfAbsent(broadcastId, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    private VoteTally loadTally(Long broadcastId) {
+        Broadcast broadcast = broadcastRepository.findById(broadcastId).orElse(null);
+        if (broadcast == null || broadcast.getVote() == null) {
+            return null;
+        }
+        Vote vote = broadcast.getVote();
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (FeedVote feedVote : vote.getFeedVoteList()) {
+            counts.put(feedVote.getFeed().getId(), feedVote.getCount() == null ? 0L : feedVote.getCount().longValue());
+        }
+        return new VoteTally(broadcastId, vote.getId(), vote.getTitle(), counts);
+    }
+
+    /**
+     * @return 방송 중인지. 레지스트리가 로딩 전이면 DB로 확인
+     */
+    private boolean isLive(Long broadcastId) {
+        if (liveBroadcastRegistry.isLoaded()) {
+            return liveBroadcastRegistry.getSnapshot().get(broadcastId) != null;
+        }
+        return !broadcastRepository.findLiveBroadcasts(List.of(broadcastId)).isEmpty();
+    }
+
+    /**
+     * @return 방송 목록에서 빠졌는지. 레지스트리가 로딩 전이면 판단하지 않는다
+     */
+    private boolean isEnded(Long broadcastId) {
+        return liveBroadcastRegistry.isLoaded() && liveBroadcastRegistry.getSnapshot().get(broadcastId) == null;
+    }
+
+    private VoteTallyApi toApi(VoteTally tally) {
+        return toApi(tally, tally.snapshot());
+    }
+
+    private VoteTallyApi toApi(VoteTally tally, Map<Long, Long> counts) {
+        List<FeedTallyDto> feeds = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            feeds.add(new FeedTallyDto(entry.getKey(), entry.getValue()));
+            total += entry.getValue();
+        }
+        return new VoteTallyApi(tally.getBroadcastId(), tally.getTitle(), total, feeds);
+    }
+
+    private void send(SseEmitter emitter, VoteTallyApi tally) {
+        try {
+            emitter.send(SseEmitter.event().name("tally").data(tally, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void completeAll(List<SseEmitter> emitters) {
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+    }
+
+    private static Integer toCount(Long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+}
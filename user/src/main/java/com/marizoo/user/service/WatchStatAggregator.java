@@ -0,0 +1,153 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.dto.WatchCounterDto;
+import com.marizoo.user.entity.BadgeType;
+import com.marizoo.user.repository.UserCounterRepository;
+import com.marizoo.user.repository.UsersBadgeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 시청 종료 카운터 write-behind.
+ * 방송이 끝나면 시청자들의 watchEnd 요청이 한꺼번에 몰리므로, 요청마다 유저 행을 읽고 쓰지 않고
+ * 유저별 증가분을 메모리에서 합쳐 두었다가 주기적으로 batch update 한다.
+ * 배지 달성 여부도 flush 할 때 잠근 행의 이전 누적값과 비교해 한 번에 판단한다.
+ */
+@Slf4j
+@Component
+public class WatchStatAggregator {
+
+    private final UserCounterRepository userCounterRepository;
+    private final UsersBadgeRepository usersBadgeRepository;
+    private final BadgeRuleEngine badgeRuleEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    // userId → 아직 DB에 반영하지 않은 증가분
+    private final Map<Long, WatchCounterDto> pending = new ConcurrentHashMap<>();
+    // 스케줄 flush와 종료 시 flush가 겹치지 않도록
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public WatchStatAggregator(UserCounterRepository userCounterRepository,
+                               UsersBadgeRepository usersBadgeRepository,
+                               BadgeRuleEngine badgeRuleEngine,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${watch.flush-batch-size:500}") int batchSize) {
+        this.userCounterRepository = userCounterRepository;
+        this.usersBadgeRepository = usersBadgeRepository;
+        this.badgeRuleEngine = badgeRuleEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        meterRegistry.gaugeMapSize("watch.pending.users", Collections.emptyList(), pending);
+    }
+
+    /**
+     * 증가분을 합쳐 둔다. null과 음수는 0으로 본다.
+     */
+    public void add(Long userId, Integer watchTime, Integer effectCount, Integer feedCount) {
+        WatchCounterDto delta = new WatchCounterDto(userId,
+                increment(watchTime), increment(effectCount), increment(feedCount));
+        if (delta.getWatchTime() == 0 && delta.getEffectCount() == 0 && delta.getFeedCount() == 0) {
+            return;
+        }
+        pending.merge(userId, delta, WatchCounterDto::plus);
+    }
+
+    @Scheduled(fixedDelayString = "${watch.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<WatchCounterDto> drained = drain();
+            for (int from = 0; from < drained.size(); from += batchSize) {
+                List<WatchCounterDto> chunk = drained.subList(from, Math.min(from + batchSize, drained.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(chunk));
+                } catch (Exception e) {
+                    // 롤백되었으므로 다음 주기에 다시 반영한다
+                    log.error("시청 카운터 반영 실패 : {}명", chunk.size(), e);
+                    chunk.forEach(delta -> pending.merge(delta.getUserId(), delta, WatchCounterDto::plus));
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 종료 전에 남은 증가분을 모두 반영한다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("반영하지 못한 시청 카운터 : {}명", pending.size());
+        }
+    }
+
+    private List<WatchCounterDto> drain() {
+        List<WatchCounterDto> drained = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            WatchCounterDto delta = pending.remove(userId);
+            if (delta != null) {
+                drained.add(delta);
+            }
+        }
+        // 여러 인스턴스가 동시에 flush 해도 같은 순서로 잠그도록 정렬
+        drained.sort(Comparator.comparingLong(WatchCounterDto::getUserId));
+        return drained;
+    }
+
+    private void write(List<WatchCounterDto> deltas) {
+        List<Long> userIds = new ArrayList<>(deltas.size());
+        for (WatchCounterDto delta : deltas) {
+            userIds.add(delta.getUserId());
+        }
+
+        Map<Long, WatchCounterDto> before = new HashMap<>();
+        for (WatchCounterDto counter : userCounterRepository.findCountersForUpdate(userIds)) {
+            before.put(counter.getUserId(), counter);
+        }
+
+        // 탈퇴 등으로 없는 유저는 버린다
+        List<WatchCounterDto> existing = new ArrayList<>(before.size());
+        Map<Long, List<Long>> badgeIdsByUser = new HashMap<>();
+        for (WatchCounterDto delta : deltas) {
+            WatchCounterDto current = before.get(delta.getUserId());
+            if (current == null) {
+                continue;
+            }
+            existing.add(delta);
+
+            WatchCounterDto after = current.plus(delta);
+            List<Long> badgeIds = new ArrayList<>();
+            badgeIds.addAll(badgeRuleEngine.crossed(BadgeType.WATCH, current.getWatchTime(), after.getWatchTime()));
+            badgeIds.addAll(badgeRuleEngine.crossed(BadgeType.EFFECT, current.getEffectCount(), after.getEffectCount()));
+            badgeIds.addAll(badgeRuleEngine.crossed(BadgeType.FEED, current.getFeedCount(), after.getFeedCount()));
+            if (!badgeIds.isEmpty()) {
+                badgeIdsByUser.put(delta.getUserId(), badgeIds);
+            }
+        }
+
+        if (!existing.isEmpty()) {
+            userCounterRepository.addCounters(existing);
+        }
+        if (!badgeIdsByUser.isEmpty()) {
+            usersBadgeRepository.addBadges(badgeIdsByUser);
+        }
+    }
+
+    private static long increment(Integer value) {
+        return value == null ? 0L : Math.max(0, value);
+    }
+}
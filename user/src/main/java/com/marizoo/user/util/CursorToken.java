@@ -0,0 +1,52 @@
+package com.marizoo.user.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * keyset 페이지네이션 커서. (start_time, broadcast_id) 위치를 클라이언트가 해석할 수 없는 토큰으로 주고받는다.
+ * 다음 페이지는 이 위치보다 뒤(오래된 순)의 행부터 시작한다.
+ */
+@Getter
+public class CursorToken {
+
+    private static final String DELIMITER = "|";
+
+    private final LocalDateTime startTime;
+    private final Long id;
+
+    public CursorToken(LocalDateTime startTime, Long id) {
+        this.startTime = startTime;
+        this.id = id;
+    }
+
+    /**
+     * @return base64url 토큰
+     */
+    public String encode() {
+        String raw = startTime + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token : encode()로 만든 토큰. null이나 빈 문자열이면 첫 페이지
+     * @return 커서. 첫 페이지면 null
+     * @throws IllegalArgumentException 토큰 형식이 잘못된 경우
+     */
+    public static CursorToken decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int delimiter = raw.lastIndexOf(DELIMITER);
+            return new CursorToken(LocalDateTime.parse(raw.substring(0, delimiter)), Long.parseLong(raw.substring(delimiter + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.marizoo.user.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 거리순 결과의 페이지 커서. (distance, id) 위치를 클라이언트가 해석할 수 없는 토큰으로 주고받는다.
+ * 다음 페이지는 이 위치보다 뒤(먼 순, 같으면 id 큰 순)부터 시작한다.
+ * 거리 없이 id 순으로 정렬한 결과는 distance를 0으로 둔다.
+ */
+@Getter
+public class DistanceCursor {
+
+    private static final String DELIMITER = "|";
+
+    private final double distance;
+    private final long id;
+
+    public DistanceCursor(double distance, long id) {
+        this.distance = distance;
+        this.id = id;
+    }
+
+    /**
+     * @return (distance, id)가 이 커서보다 뒤인지
+     */
+    public boolean isBefore(double distance, long id) {
+        int compare = Double.compare(this.distance, distance);
+        return compare < 0 || (compare == 0 && this.id < id);
+    }
+
+    /**
+     * @return base64url 토큰
+     */
+    public String encode() {
+        String raw = distance + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token : encode()로 만든 토큰. null이나 빈 문자열이면 첫 페이지
+     * @return 커서. 첫 페이지면 null
+     * @throws IllegalArgumentException 토큰 형식이 잘못된 경우
+     */
+    public static DistanceCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int delimiter = raw.lastIndexOf(DELIMITER);
+            return new DistanceCursor(Double.parseDouble(raw.substring(0, delimiter)), Long.parseLong(raw.substring(delimiter + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.marizoo.user.util;
+
+/**
+ * 양수 long id 집합.
+ * Long 객체 없이 long 배열 하나에 open addressing(선형 탐사)으로 넣으므로 원소당 16바이트 안팎만 쓴다.
+ * 0은 빈 칸 표시로 쓰므로 넣을 수 없다. 스레드 안전하지 않으므로 호출하는 쪽에서 동기화한다.
+ */
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet() {
+        this.table = new long[MIN_CAPACITY];
+    }
+
+    /**
+     * @return 새로 넣었으면 true, 이미 있으면 false
+     */
+    public boolean add(long value) {
+        checkValue(value);
+        if ((size + 1) * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        int slot = find(table, value);
+        if (table[slot] == value) {
+            return false;
+        }
+        table[slot] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return value > 0 && table[find(table, value)] == value;
+    }
+
+    /**
+     * @return 있어서 뺐으면 true
+     */
+    public boolean remove(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int slot = find(table, value);
+        if (table[slot] != value) {
+            return false;
+        }
+        table[slot] = 0;
+        size--;
+
+        // 뒤에 이어진 원소 중 빈 칸 앞으로 와야 하는 것을 당겨 탐사 경로를 유지한다
+        int mask = table.length - 1;
+        int empty = slot;
+        for (int i = (slot + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = home(table[i], mask);
+            if (((i - home) & mask) >= ((i - empty) & mask)) {
+                table[empty] = table[i];
+                table[i] = 0;
+                empty = i;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return 원소를 담은 새 배열 (순서 없음)
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        for (long value : table) {
+            if (value != 0) {
+                values[i++] = value;
+            }
+        }
+        return values;
+    }
+
+    private void resize(int capacity) {
+        long[] next = new long[capacity];
+        for (long value : table) {
+            if (value != 0) {
+                next[find(next, value)] = value;
+            }
+        }
+        table = next;
+    }
+
+    /**
+     * @return value가 있는 칸, 없으면 들어갈 빈 칸
+     */
+    private static int find(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = home(value, mask);
+        while (table[slot] != 0 && table[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkValue(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("0 이하의 값은 넣을 수 없습니다 : " + value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.marizoo.user.util;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * 부분 문자열 검색용 n-gram 역색인 (1 ~ 3글자).
+ * 한글은 음절 단위로 자르므로 "우파" 같은 두 글자 검색어도 색인에서 바로 찾는다.
+ * 검색어가 3글자 이하면 해당 gram의 posting이 곧 결과이고,
+ * 더 길면 trigram posting을 교집합한 뒤 실제로 포함하는지 확인한다.
+ * 만든 뒤에는 변경하지 않으므로 여러 스레드에서 락 없이 읽어도 된다.
+ */
+public final class NgramIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final int[] NONE = new int[0];
+
+    // 정규화된 문서. 문서 번호 = 생성자에 넘긴 list의 위치
+    private final String[] documents;
+    // gram → 문서 번호 오름차순
+    private final Map<String, int[]> postings;
+
+    public NgramIndex(List<String> documents) {
+        this.documents = new String[documents.size()];
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int doc = 0; doc < documents.size(); doc++) {
+            String text = normalize(documents.get(doc));
+            this.documents[doc] = text;
+            for (String gram : gramsOf(text)) {
+                grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(doc);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, docs) -> postings.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+        this.postings = postings;
+    }
+
+    /**
+     * @param keyword : 검색어
+     * @return keyword를 포함하는 문서 번호 오름차순. 빈 검색어면 모든 문서
+     */
+    public int[] search(String keyword) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            int[] all = new int[documents.length];
+            for (int doc = 0; doc < all.length; doc++) {
+                all[doc] = doc;
+            }
+            return all;
+        }
+        if (query.length() <= MAX_GRAM) {
+            return postings.getOrDefault(query, NONE);
+        }
+
+        // 짧은 posting부터 교집합
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + MAX_GRAM <= query.length(); i++) {
+            int[] posting = postings.get(query.substring(i, i + MAX_GRAM));
+            if (posting == null) {
+                return NONE;
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+
+        int size = 0;
+        int[] matched = new int[candidates.length];
+        for (int doc : candidates) {
+            if (documents[doc].contains(query)) {
+                matched[size++] = doc;
+            }
+        }
+        return Arrays.copyOf(matched, size);
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    /**
+     * NFC 정규화 + 소문자. 자모가 분리된(NFD) 입력도 음절로 합쳐서 비교한다.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= text.length(); i++) {
+                grams.add(text.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,88 @@
+package com.marizoo.user.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 문자열 대칭 암호화 (AES-GCM). DB에 평문으로 남기면 안 되는 값(임시 비밀번호가 든 메일 본문 등)에 쓴다.
+ * 결과는 base64(iv + 암호문 + tag)이고, 키는 설정한 비밀값의 SHA-256이다.
+ */
+public final class TextCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    public TextCipher(String secret) {
+        this(sha256(secret));
+    }
+
+    private TextCipher(byte[] key) {
+        this.key = new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * @return 이 프로세스에서만 쓰는 임의 키. 재시작하거나 다른 인스턴스에서는 복호화할 수 없다
+     */
+    public static TextCipher random() {
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return new TextCipher(key);
+    }
+
+    public String encrypt(String plain) {
+        if (plain == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                    .put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("암호화에 실패했습니다.", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 형식이 잘못되었거나 다른 키로 암호화된 값인 경우
+     */
+    public String decrypt(String sealed) {
+        if (sealed == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(sealed);
+            if (bytes.length <= IV_BYTES) {
+                throw new IllegalArgumentException("복호화할 수 없는 값입니다.");
+            }
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_BYTES));
+            return new String(cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("복호화할 수 없는 값입니다.", e);
+        }
+    }
+
+    private static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
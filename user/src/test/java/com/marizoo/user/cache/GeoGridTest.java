@@ -0,0 +1,101 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 격자 검색 결과가 전체 가게를 거리순으로 정렬한 결과와 같은지 확인한다.
+ */
+class GeoGridTest {
+
+    Random random;
+    List<AnimalStoreDto> stores;
+    GeoGrid grid;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(208);
+        stores = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            stores.add(store(id, 33 + random.nextDouble() * 5, 125 + random.nextDouble() * 5));
+        }
+        grid = new GeoGrid(0.05).with(List.of(), stores);
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            // given : 가게가 있는 범위 밖의 기준 위치도 포함
+            double lat = 30 + random.nextDouble() * 11;
+            double lng = 122 + random.nextDouble() * 11;
+            int k = 1 + random.nextInt(30);
+
+            // when
+            List<Long> found = ids(grid.nearest(lat, lng, k, null));
+
+            // then
+            assertThat(found).containsExactlyElementsOf(bruteForce(lat, lng, Double.MAX_VALUE, k));
+        }
+    }
+
+    @Test
+    public void withinMatchesBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            double lat = 33 + random.nextDouble() * 5;
+            double lng = 125 + random.nextDouble() * 5;
+
+            List<Long> found = ids(grid.within(lat, lng, 15, 50, null));
+
+            assertThat(found).containsExactlyElementsOf(bruteForce(lat, lng, 15, 50));
+        }
+    }
+
+    @Test
+    public void movedAndRemovedStoresAreReindexed() {
+        // given : 1번 가게를 멀리 옮기고 2번 가게를 삭제
+        AnimalStoreDto before = stores.get(0);
+        AnimalStoreDto moved = store(before.getId(), 37.5665, 126.9780);
+        GeoGrid next = grid.with(List.of(before, stores.get(1)), List.of(moved));
+
+        // when
+        List<GeoGrid.Nearby> found = next.nearest(37.5665, 126.9780, 1, null);
+
+        // then
+        assertThat(next.size()).isEqualTo(stores.size() - 1);
+        assertThat(found.get(0).store).isSameAs(moved);
+        assertThat(next.within(before.getLat(), before.getLng(), 0.001, 10, null))
+                .noneMatch(nearby -> nearby.store.getId().equals(before.getId()));
+        assertThat(grid.size()).isEqualTo(stores.size());
+    }
+
+    @Test
+    public void filterIsAppliedBeforeLimit() {
+        List<GeoGrid.Nearby> found = grid.nearest(35.5, 127.5, 10, store -> store.getId() % 7 == 0);
+
+        assertThat(found).hasSize(10).allMatch(nearby -> nearby.store.getId() % 7 == 0);
+    }
+
+    private List<Long> bruteForce(double lat, double lng, double radiusKm, int limit) {
+        return stores.stream()
+                .filter(store -> GeoGrid.distanceKm(lat, lng, store.getLat(), store.getLng()) <= radiusKm)
+                .sorted(Comparator.comparingDouble((AnimalStoreDto store) -> GeoGrid.distanceKm(lat, lng, store.getLat(), store.getLng()))
+                        .thenComparing(AnimalStoreDto::getId))
+                .limit(limit)
+                .map(AnimalStoreDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<GeoGrid.Nearby> found) {
+        return found.stream().map(nearby -> nearby.store.getId()).collect(Collectors.toList());
+    }
+
+    private static AnimalStoreDto store(long id, double lat, double lng) {
+        return new AnimalStoreDto(id, "가게" + id, null, null, null, (float) lat, (float) lng);
+    }
+}
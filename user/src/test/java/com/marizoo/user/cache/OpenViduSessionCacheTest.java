@@ -0,0 +1,183 @@
+package com.marizoo.user.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 로컬 stub OpenVidu 서버를 띄워 세션 캐시 동작을 확인한다.
+ */
+class OpenViduSessionCacheTest {
+
+    HttpServer server;
+    ExecutorService serverExecutor;
+    SimpleMeterRegistry meterRegistry;
+    OpenViduSessionCache cache;
+
+    Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+    AtomicInteger listCalls = new AtomicInteger();
+    AtomicInteger lookupCalls = new AtomicInteger();
+    AtomicInteger connectionCalls = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/openvidu/api/sessions", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/";
+        cache = new OpenViduSessionCache(url, "MY_SECRET", 60_000, new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void refreshedSessionIsServedFromCache() {
+        // given
+        activeSessions.add("ses_live");
+        cache.refresh();
+
+        // when
+        boolean active = cache.isActive("ses_live");
+
+        // then
+        assertThat(active).isTrue();
+        assertThat(listCalls.get()).isEqualTo(1);
+        assertThat(lookupCalls.get()).isEqualTo(0);
+        assertThat(meterRegistry.get("openvidu.session.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("openvidu.session.cache.refresh").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void missingSessionIsLookedUpOnceAndCached() {
+        // when
+        boolean first = cache.isActive("ses_unknown");
+        boolean second = cache.isActive("ses_unknown");
+
+        // then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        assertThat(lookupCalls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("openvidu.session.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("openvidu.session.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentJoinsShareOneLookup() throws Exception {
+        // given
+        activeSessions.add("ses_popular");
+        ExecutorService joins = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        ConcurrentLinkedQueue<Future<Boolean>> results = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(joins.submit(() -> {
+                start.await();
+                return cache.isActive("ses_popular");
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        joins.shutdown();
+        assertThat(lookupCalls.get()).isEqualTo(1);
+        assertThat(listCalls.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void joinOnlyCallsOpenViduToCreateConnection() {
+        // given
+        activeSessions.add("ses_live");
+        cache.refresh();
+
+        // when
+        boolean active = cache.isActive("ses_live");
+        String token = cache.createConnection("ses_live");
+
+        // then
+        assertThat(active).isTrue();
+        assertThat(token).isEqualTo("wss://localhost?sessionId=ses_live&token=tok_1");
+        assertThat(connectionCalls.get()).isEqualTo(1);
+        assertThat(lookupCalls.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void connectionToClosedSessionReturnsNull() {
+        // when
+        String token = cache.createConnection("ses_closed");
+
+        // then
+        assertThat(token).isNull();
+        assertThat(cache.isActive("ses_closed")).isFalse();
+        assertThat(lookupCalls.get()).isEqualTo(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"Basic T1BFTlZJRFVBUFA6TVlfU0VDUkVU".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            respond(exchange, 401, "");
+            return;
+        }
+
+        String[] path = exchange.getRequestURI().getPath().replaceFirst("^/openvidu/api/sessions/?", "").split("/");
+        if (path[0].isEmpty()) {
+            listCalls.incrementAndGet();
+            StringBuilder content = new StringBuilder();
+            for (String sessionId : activeSessions) {
+                content.append(content.length() == 0 ? "" : ",").append("{\"id\":\"").append(sessionId).append("\"}");
+            }
+            respond(exchange, 200, "{\"numberOfElements\":" + activeSessions.size() + ",\"content\":[" + content + "]}");
+            return;
+        }
+
+        String sessionId = path[0];
+        if (path.length > 1 && path[1].equals("connection")) {
+            int call = connectionCalls.incrementAndGet();
+            if (!activeSessions.contains(sessionId)) {
+                respond(exchange, 404, "");
+                return;
+            }
+            respond(exchange, 200, "{\"token\":\"wss://localhost?sessionId=" + sessionId + "&token=tok_" + call + "\"}");
+            return;
+        }
+
+        lookupCalls.incrementAndGet();
+        if (!activeSessions.contains(sessionId)) {
+            respond(exchange, 404, "");
+            return;
+        }
+        respond(exchange, 200, "{\"id\":\"" + sessionId + "\"}");
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
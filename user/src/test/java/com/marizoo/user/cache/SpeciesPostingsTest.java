@@ -0,0 +1,98 @@
+package com.marizoo.user.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 보유 종 변경 반영과 OR/AND 조합, 이전 postings가 바뀌지 않는지(copy-on-write) 확인한다.
+ */
+class SpeciesPostingsTest {
+
+    @Test
+    public void anyOfAndAllOfCombineStores() {
+        // given
+        SpeciesPostings postings = SpeciesPostings.EMPTY.with(Map.of(
+                1L, new long[]{10, 20},
+                2L, new long[]{20},
+                3L, new long[]{10, 20, 30}));
+
+        // when
+        BitSet any = postings.anyOf(List.of(10L, 30L));
+        BitSet all = postings.allOf(List.of(10L, 20L));
+
+        // then
+        assertThat(ids(any)).containsExactly(1, 3);
+        assertThat(ids(all)).containsExactly(1, 3);
+        assertThat(ids(postings.allOf(List.of(20L, 30L)))).containsExactly(3);
+        assertThat(postings.hasSpecies(2, 20)).isTrue();
+        assertThat(postings.hasSpecies(2, 10)).isFalse();
+    }
+
+    @Test
+    public void unknownOrEmptySpeciesMatchNothing() {
+        // given
+        SpeciesPostings postings = SpeciesPostings.EMPTY.with(Map.of(1L, new long[]{10}));
+
+        // then
+        assertThat(postings.anyOf(List.of(99L)).isEmpty()).isTrue();
+        assertThat(postings.allOf(List.of(10L, 99L)).isEmpty()).isTrue();
+        assertThat(postings.allOf(List.of()).isEmpty()).isTrue();
+        assertThat(postings.anyOf(List.of()).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void changedStoreIsReindexedWithoutTouchingPreviousPostings() {
+        // given
+        SpeciesPostings before = SpeciesPostings.EMPTY.with(Map.of(
+                1L, new long[]{10, 20},
+                2L, new long[]{20}));
+
+        // when : 1번 가게는 10을 빼고 30을 추가, 2번 가게는 종이 모두 빠짐
+        SpeciesPostings after = before.with(Map.of(
+                1L, new long[]{20, 30},
+                2L, new long[]{}));
+
+        // then
+        assertThat(ids(after.stores(10))).isEmpty();
+        assertThat(ids(after.stores(20))).containsExactly(1);
+        assertThat(ids(after.stores(30))).containsExactly(1);
+        assertThat(ids(before.stores(10))).containsExactly(1);
+        assertThat(ids(before.stores(20))).containsExactly(1, 2);
+        assertThat(ids(before.stores(30))).isEmpty();
+    }
+
+    @Test
+    public void unchangedSpeciesReturnsSameInstance() {
+        // given
+        SpeciesPostings postings = SpeciesPostings.EMPTY.with(Map.of(1L, new long[]{10, 20}));
+
+        // when
+        SpeciesPostings same = postings.with(Map.of(1L, new long[]{10, 20}));
+
+        // then
+        assertThat(same).isSameAs(postings);
+    }
+
+    @Test
+    public void allOfDoesNotModifySharedBitmaps() {
+        // given
+        SpeciesPostings postings = SpeciesPostings.EMPTY.with(Map.of(
+                1L, new long[]{10},
+                2L, new long[]{10, 20}));
+
+        // when
+        postings.allOf(List.of(10L, 20L));
+
+        // then
+        assertThat(ids(postings.stores(10))).containsExactly(1, 2);
+    }
+
+    private static int[] ids(BitSet bits) {
+        return bits.stream().toArray();
+    }
+}
@@ -0,0 +1,140 @@
+package com.marizoo.user.cache;
+
+import com.marizoo.user.dto.animalstore_dto.AnimalStoreDto;
+import com.marizoo.user.util.DistanceCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 검색어/종 검색어 조건 조합과 거리순 페이지가 전체 정렬 결과와 같은지 확인한다.
+ */
+class StoreSearchIndexTest {
+
+    List<AnimalStoreDto> stores;
+    SpeciesPostings species;
+    StoreSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        stores = List.of(
+                store(1, "마리주 강남점", "서울 강남구 테헤란로", 37.50, 127.03),
+                store(2, "마리주 해운대점", "부산 해운대구", 35.16, 129.16),
+                store(3, "우파루파 하우스", "서울 마포구", 37.55, 126.91),
+                store(4, "파충류 월드", "대전 유성구", null, null));
+        species = SpeciesPostings.EMPTY.with(Map.of(
+                1L, new long[]{100},
+                2L, new long[]{100, 200},
+                3L, new long[]{300}));
+        index = StoreSearchIndex.empty()
+                .withStores(stores)
+                .withClassifications(Map.of(100L, "레오파드 게코", 200L, "크레스티드 게코", 300L, "우파루파"));
+    }
+
+    @Test
+    public void keywordMatchesNameOrAddress() {
+        assertThat(ids(index.match("마리주", null, species))).containsExactly(1, 2);
+        assertThat(ids(index.match("서울", null, species))).containsExactly(1, 3);
+        assertThat(ids(index.match("없는가게", null, species))).isEmpty();
+    }
+
+    @Test
+    public void classificationMatchesStoresHavingAnyMatchingSpecies() {
+        assertThat(ids(index.match(null, "게코", species))).containsExactly(1, 2);
+        assertThat(ids(index.match(null, "크레스티드", species))).containsExactly(2);
+        assertThat(ids(index.match(null, "우파", species))).containsExactly(3);
+    }
+
+    @Test
+    public void keywordAndClassificationAreIntersected() {
+        assertThat(ids(index.match("서울", "게코", species))).containsExactly(1);
+        assertThat(ids(index.match("부산", "우파루파", species))).isEmpty();
+    }
+
+    @Test
+    public void noConditionReturnsNull() {
+        assertThat(index.match(null, " ", species)).isNull();
+    }
+
+    @Test
+    public void classificationIndexIsSharedWhenStoresChange() {
+        // given
+        StoreSearchIndex next = index.withStores(List.of(store(3, "우파루파 하우스", "서울 마포구", 37.55, 126.91)));
+
+        // then
+        assertThat(ids(next.match("마리주", null, species))).isEmpty();
+        assertThat(ids(next.match(null, "게코", species))).containsExactly(1, 2);
+    }
+
+    @Test
+    public void rankPagesMatchFullSort() {
+        // given
+        Random random = new Random(208);
+        Map<Long, AnimalStoreDto> byId = new HashMap<>();
+        BitSet all = new BitSet();
+        for (long id = 1; id <= 500; id++) {
+            AnimalStoreDto store = id % 50 == 0
+                    ? store(id, "가게" + id, "주소", null, null)
+                    : store(id, "가게" + id, "주소", 33 + random.nextDouble() * 5, 125 + random.nextDouble() * 5);
+            byId.put(id, store);
+            all.set(SpeciesPostings.bit(id));
+        }
+        double lat = 37.5665, lng = 126.9780;
+        List<Long> expected = byId.values().stream()
+                .sorted(Comparator.<AnimalStoreDto>comparingDouble(store -> distance(store, lat, lng)).thenComparing(AnimalStoreDto::getId))
+                .map(AnimalStoreDto::getId)
+                .collect(Collectors.toList());
+
+        // when : 커서로 끝까지 넘긴다
+        List<Long> paged = new ArrayList<>();
+        DistanceCursor after = null;
+        while (true) {
+            List<GeoGrid.Nearby> page = StoreSearchIndex.rank(all, byId, lat, lng, after, 37);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(nearby -> paged.add(nearby.store.getId()));
+            GeoGrid.Nearby last = page.get(page.size() - 1);
+            after = new DistanceCursor(last.distanceKm, last.store.getId());
+        }
+
+        // then : 위치 없는 가게는 맨 뒤
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void rankWithoutLocationOrdersById() {
+        // given
+        Map<Long, AnimalStoreDto> byId = new HashMap<>();
+        BitSet candidates = new BitSet();
+        for (AnimalStoreDto store : stores) {
+            byId.put(store.getId(), store);
+            candidates.set(SpeciesPostings.bit(store.getId()));
+        }
+        candidates.set(99);
+
+        // when
+        List<GeoGrid.Nearby> ranked = StoreSearchIndex.rank(candidates, byId, null, null, null, 3);
+
+        // then : 없는 id(99)는 건너뛰고 거리는 0
+        assertThat(ranked).extracting(nearby -> nearby.store.getId()).containsExactly(1L, 2L, 3L);
+        assertThat(ranked).allMatch(nearby -> nearby.distanceKm == 0);
+    }
+
+    private static double distance(AnimalStoreDto store, double lat, double lng) {
+        return GeoGrid.hasLocation(store) ? GeoGrid.distanceKm(lat, lng, store.getLat(), store.getLng()) : Double.POSITIVE_INFINITY;
+    }
+
+    private static int[] ids(BitSet bits) {
+        return bits.stream().toArray();
+    }
+
+    private static AnimalStoreDto store(long id, String name, String address, Double lat, Double lng) {
+        return new AnimalStoreDto(id, name, null, address, null,
+                lat == null ? null : lat.floatValue(), lng == null ? null : lng.floatValue());
+    }
+}
@@ -0,0 +1,126 @@
+package com.marizoo.user.controller;
+
+import com.marizoo.user.cache.LiveBroadcastRegistry;
+import com.marizoo.user.entity.*;
+import com.marizoo.user.repository.broadcast_repo.BroadcastRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class BroadcastControllerQueryCountTest {
+
+    @PersistenceContext
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    BroadcastRepository broadcastRepository;
+    @Autowired
+    LiveBroadcastRegistry liveBroadcastRegistry;
+
+    @AfterTransaction
+    public void resetRegistry() {
+        // 롤백된 테스트 데이터를 레지스트리에서 제거
+        liveBroadcastRegistry.reconcile();
+    }
+
+    @Test
+    public void onAirProjectionQueryCountIsConstant() {
+        // given
+        saveOnAirBroadcasts(1, 1);
+        long single = countStatements(() -> broadcastRepository.findOnAirBroadcasts(15));
+
+        saveOnAirBroadcasts(10, 3);
+        long many = countStatements(() -> broadcastRepository.findOnAirBroadcasts(15));
+
+        // then : 방송 목록 1번 + 종 이미지 1번
+        assertThat(single).isEqualTo(2);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    public void onAirListIsServedWithoutQueries() {
+        // given
+        saveOnAirBroadcasts(10, 3);
+        liveBroadcastRegistry.reconcile();
+
+        // when
+        long count = countStatements(() -> {
+            try {
+                mockMvc.perform(get("/api/user/broadcasts")).andExpect(status().isOk());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // then : 레지스트리 스냅샷만 읽는다
+        assertThat(count).isEqualTo(0);
+    }
+
+    private long countStatements(Runnable runnable) {
+        em.flush();
+        em.clear();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        runnable.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveOnAirBroadcasts(int broadcastCount, int animalCount) {
+        AnimalStore animalStore = new AnimalStore();
+        animalStore.setStoreName("테스트 가게");
+        em.persist(animalStore);
+
+        Species species = new Species();
+        species.setClassification("우파루파");
+        species.setClassificationImg("upa.png");
+        em.persist(species);
+
+        for (int i = 0; i < broadcastCount; i++) {
+            Broadcast broadcast = new Broadcast();
+            broadcast.setTitle("방송 " + i);
+            broadcast.setSessionId("session" + i);
+            broadcast.setStatus(BroadcastStatus.ONAIR);
+            broadcast.setStartTime(LocalDateTime.now());
+            broadcast.setAnimalStore(animalStore);
+            em.persist(broadcast);
+
+            for (int j = 0; j < animalCount; j++) {
+                Animal animal = new Animal();
+                animal.setName("동물 " + j);
+                animal.setAnimalStore(animalStore);
+                animal.setSpecies(species);
+                em.persist(animal);
+
+                BroadcastAnimal broadcastAnimal = new BroadcastAnimal();
+                broadcastAnimal.setBroadcast(broadcast);
+                broadcastAnimal.setAnimal(animal);
+                broadcastAnimal.setClassification(species.getClassification());
+                broadcastAnimal.setClassificationImg(species.getClassificationImg());
+                em.persist(broadcastAnimal);
+            }
+        }
+    }
+}
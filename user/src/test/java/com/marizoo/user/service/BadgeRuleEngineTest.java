@@ -0,0 +1,121 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.entity.Badge;
+import com.marizoo.user.entity.BadgeType;
+import com.marizoo.user.repository.BadgeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 카운터가 before → after로 바뀔 때 (before, after] 구간의 조건만 달성으로 보는지 확인한다.
+ */
+class BadgeRuleEngineTest {
+
+    BadgeRepository badgeRepository;
+    BadgeRuleEngine engine;
+    List<Badge> badges = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        badgeRepository = mock(BadgeRepository.class);
+        when(badgeRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(badges));
+        engine = new BadgeRuleEngine(badgeRepository);
+    }
+
+    @Test
+    public void reachingThresholdExactlyAwardsBadge() {
+        // given
+        badge(1L, BadgeType.WATCH, 10);
+        badge(2L, BadgeType.WATCH, 20);
+
+        // when
+        List<Long> crossed = engine.crossed(BadgeType.WATCH, 9, 10);
+
+        // then
+        assertThat(crossed).containsExactly(1L);
+    }
+
+    @Test
+    public void startingAtThresholdDoesNotAwardAgain() {
+        // given
+        badge(1L, BadgeType.WATCH, 10);
+        badge(2L, BadgeType.WATCH, 20);
+
+        // when
+        List<Long> crossed = engine.crossed(BadgeType.WATCH, 10, 19);
+
+        // then
+        assertThat(crossed).isEmpty();
+    }
+
+    @Test
+    public void jumpOverSeveralThresholdsAwardsAllInOrder() {
+        // given
+        badge(3L, BadgeType.FEED, 30);
+        badge(1L, BadgeType.FEED, 1);
+        badge(2L, BadgeType.FEED, 10);
+        badge(4L, BadgeType.FEED, 100);
+
+        // when
+        List<Long> crossed = engine.crossed(BadgeType.FEED, 0, 30);
+
+        // then
+        assertThat(crossed).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void badgesWithEqualThresholdAreAwardedTogether() {
+        // given
+        badge(5L, BadgeType.EFFECT, 10);
+        badge(2L, BadgeType.EFFECT, 10);
+        badge(9L, BadgeType.EFFECT, 20);
+
+        // when
+        List<Long> crossed = engine.crossed(BadgeType.EFFECT, 5, 15);
+        List<Long> again = engine.crossed(BadgeType.EFFECT, 10, 15);
+
+        // then
+        assertThat(crossed).containsExactly(2L, 5L);
+        assertThat(again).isEmpty();
+    }
+
+    @Test
+    public void typeWithoutBadgesAwardsNothing() {
+        // given
+        badge(1L, BadgeType.WATCH, 1);
+
+        // when
+        List<Long> crossed = engine.crossed(BadgeType.BIRTH, 0, 1000);
+
+        // then
+        assertThat(crossed).isEmpty();
+    }
+
+    @Test
+    public void counterNotIncreasingAwardsNothing() {
+        // given
+        badge(1L, BadgeType.WATCH, 10);
+
+        // when
+        List<Long> same = engine.crossed(BadgeType.WATCH, 10, 10);
+        List<Long> decreased = engine.crossed(BadgeType.WATCH, 20, 5);
+
+        // then
+        assertThat(same).isEmpty();
+        assertThat(decreased).isEmpty();
+    }
+
+    private void badge(Long id, BadgeType badgeType, int cond) {
+        Badge badge = new Badge();
+        badge.setId(id);
+        badge.setBadgeType(badgeType);
+        badge.setCond(cond);
+        badges.add(badge);
+    }
+}
@@ -0,0 +1,291 @@
+package com.marizoo.user.service;
+
+import com.marizoo.user.dto.MailDto;
+import com.marizoo.user.entity.MailOutbox;
+import com.marizoo.user.entity.MailStatus;
+import com.marizoo.user.repository.mail_repo.MailOutboxRepository;
+import com.marizoo.user.util.TextCipher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.mail.MessagingException;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 로컬 SMTP stand-in 서버를 띄워 outbox 발송, 재시도, dead-letter 처리를 확인한다.
+ */
+class MailOutboxServiceTest {
+
+    static final String SECRET = "test-secret";
+
+    SmtpStandIn smtp;
+    MailOutboxRepository mailOutboxRepository;
+    JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        smtp = new SmtpStandIn();
+        mailOutboxRepository = mock(MailOutboxRepository.class);
+        when(mailOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.port());
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "5000");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    public void batchIsSentOverOneConnectionAndDeleted() {
+        // given
+        List<MailOutbox> outboxes = outboxes("a@marizoo.test", "b@marizoo.test", "c@marizoo.test");
+        MailOutboxService service = service(5);
+
+        // when
+        service.dispatch();
+
+        // then
+        assertThat(smtp.connections.get()).isEqualTo(1);
+        assertThat(smtp.delivered).containsExactlyInAnyOrder("a@marizoo.test", "b@marizoo.test", "c@marizoo.test");
+        verify(mailOutboxRepository).deleteSent(List.of(1L, 2L, 3L));
+        verify(mailOutboxRepository, never()).saveAll(anyList());
+        assertThat(outboxes).allMatch(outbox -> outbox.getAttempts() == 0);
+    }
+
+    @Test
+    public void rejectedRecipientIsRetriedWithBackoff() {
+        // given
+        List<MailOutbox> outboxes = outboxes("a@marizoo.test", "reject@marizoo.test");
+        MailOutboxService service = service(5);
+        LocalDateTime before = LocalDateTime.now();
+
+        // when
+        service.dispatch();
+
+        // then
+        assertThat(smtp.delivered).containsExactly("a@marizoo.test");
+        verify(mailOutboxRepository).deleteSent(List.of(1L));
+        MailOutbox rejected = outboxes.get(1);
+        assertThat(saved()).containsExactly(rejected);
+        assertThat(rejected.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(10));
+        assertThat(rejected.getMessage()).isNotNull();
+    }
+
+    @Test
+    public void lastFailedAttemptIsDeadLettered() {
+        // given
+        List<MailOutbox> outboxes = outboxes("reject@marizoo.test");
+        MailOutboxService service = service(1);
+
+        // when
+        service.dispatch();
+
+        // then
+        MailOutbox dead = outboxes.get(0);
+        assertThat(saved()).containsExactly(dead);
+        assertThat(dead.getStatus()).isEqualTo(MailStatus.DEAD);
+        assertThat(dead.getLastError()).isNotBlank();
+        assertThat(dead.getMessage()).isNull();
+        verify(mailOutboxRepository, never()).deleteSent(anyList());
+    }
+
+    @Test
+    public void unreachableServerFailsWholeBatch() {
+        // given : 연결 단계에서 실패하는 sender
+        List<MailOutbox> outboxes = outboxes("a@marizoo.test", "b@marizoo.test");
+        JavaMailSender unreachable = mock(JavaMailSender.class, invocation -> {
+            throw new MailSendException("Mail server connection failed", new MessagingException("Connection refused"));
+        });
+        MailOutboxService service = service(unreachable, 5);
+
+        // when
+        service.dispatch();
+
+        // then
+        assertThat(saved()).containsExactlyElementsOf(outboxes);
+        assertThat(outboxes).allMatch(outbox -> outbox.getAttempts() == 1 && outbox.getStatus() == MailStatus.PENDING);
+        verify(mailOutboxRepository, never()).deleteSent(anyList());
+    }
+
+    @Test
+    public void bodyIsStoredEncrypted() {
+        // given
+        MailDto mailDto = new MailDto();
+        mailDto.setAddress("a@marizoo.test");
+        mailDto.setTitle("제목");
+        mailDto.setMessage("임시 비밀번호 : abc123");
+
+        // when
+        service(5).enqueue(mailDto);
+
+        // then
+        ArgumentCaptor<MailOutbox> captor = ArgumentCaptor.forClass(MailOutbox.class);
+        verify(mailOutboxRepository).save(captor.capture());
+        String stored = captor.getValue().getMessage();
+        assertThat(stored).doesNotContain("abc123");
+        assertThat(new TextCipher(SECRET).decrypt(stored)).isEqualTo("임시 비밀번호 : abc123");
+    }
+
+    @Test
+    public void bodyFromAnotherKeyFailsOnlyThatMail() {
+        // given
+        List<MailOutbox> outboxes = outboxes("a@marizoo.test", "b@marizoo.test");
+        ReflectionTestUtils.setField(outboxes.get(1), "message", new TextCipher("other-secret").encrypt("본문"));
+        MailOutboxService service = service(5);
+
+        // when
+        service.dispatch();
+
+        // then
+        assertThat(smtp.delivered).containsExactly("a@marizoo.test");
+        verify(mailOutboxRepository).deleteSent(List.of(1L));
+        assertThat(saved()).containsExactly(outboxes.get(1));
+    }
+
+    private MailOutboxService service(int maxAttempts) {
+        return service(mailSender, maxAttempts);
+    }
+
+    private MailOutboxService service(JavaMailSender sender, int maxAttempts) {
+        return new MailOutboxService(mailOutboxRepository, sender, mock(PlatformTransactionManager.class),
+                SECRET, "noreply@marizoo.test", 50, maxAttempts, 10_000, 3_600_000, 60_000);
+    }
+
+    private List<MailOutbox> outboxes(String... addresses) {
+        TextCipher cipher = new TextCipher(SECRET);
+        List<MailOutbox> outboxes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < addresses.length; i++) {
+            MailOutbox outbox = MailOutbox.create(addresses[i], "제목", cipher.encrypt("본문 " + i), LocalDateTime.now());
+            ReflectionTestUtils.setField(outbox, "id", (long) i + 1);
+            outboxes.add(outbox);
+            ids.add((long) i + 1);
+        }
+        when(mailOutboxRepository.claimDue(any(), anyInt())).thenReturn(ids).thenReturn(Collections.emptyList());
+        when(mailOutboxRepository.findAllById(ids)).thenReturn(outboxes);
+        return outboxes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MailOutbox> saved() {
+        ArgumentCaptor<List<MailOutbox>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mailOutboxRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * 최소한의 SMTP 서버. 주소에 reject가 들어간 수신자는 550으로 거절한다.
+     */
+    static class SmtpStandIn implements Closeable {
+
+        final ServerSocket serverSocket;
+        final AtomicInteger connections = new AtomicInteger();
+        final ConcurrentLinkedQueue<String> delivered = new ConcurrentLinkedQueue<>();
+
+        SmtpStandIn() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "smtp-stand-in");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread session = new Thread(() -> serve(socket), "smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String recipient = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 localhost");
+                    } else if (command.startsWith("MAIL FROM")) {
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("RCPT TO")) {
+                        String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        if (address.contains("reject")) {
+                            reply(out, "550 No such user");
+                        } else {
+                            recipient = address;
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // 본문은 확인하지 않는다
+                        }
+                        delivered.add(recipient);
+                        recipient = null;
+                        reply(out, "250 OK");
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        // RSET, NOOP 등
+                        recipient = null;
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // 클라이언트가 연결을 끊음
+            }
+        }
+
+        private void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.marizoo.user.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.marizoo.user.entity.RevokedToken;
+import com.marizoo.user.repository.token_repo.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static com.marizoo.user.constant.JwtConstant.AT_EXP_TIME;
+import static com.marizoo.user.constant.JwtConstant.MINUTE;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 폐기한 토큰을 filter로 찾는지, 지난 bucket을 버리는지, 다른 인스턴스에서 폐기한 토큰을 동기화로 가져오는지 확인한다.
+ */
+class TokenRevocationServiceTest {
+
+    RevokedTokenRepository revokedTokenRepository;
+    TokenRevocationService service;
+
+    @BeforeEach
+    public void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        service = new TokenRevocationService(revokedTokenRepository, 1000, 0.001, 30_000);
+    }
+
+    @Test
+    public void revokedTokenIsRevoked() {
+        // given
+        DecodedJWT jwt = token("revoked", System.currentTimeMillis() + 5 * MINUTE);
+
+        // when
+        service.revoke(jwt);
+
+        // then
+        assertThat(service.isRevoked(jwt)).isTrue();
+        verify(revokedTokenRepository).insertIgnore(eq("revoked"), any(LocalDateTime.class), any(LocalDateTime.class));
+        // 이 인스턴스에서 폐기한 토큰은 테이블로 다시 확인하지 않는다
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    public void otherTokenIsNotRevoked() {
+        // given
+        long expiresAt = System.currentTimeMillis() + 5 * MINUTE;
+        service.revoke(token("revoked", expiresAt));
+
+        // when
+        boolean revoked = service.isRevoked(token("other", expiresAt));
+
+        // then
+        assertThat(revoked).isFalse();
+    }
+
+    @Test
+    public void expiredTokenIsNotStored() {
+        // given
+        DecodedJWT jwt = token("expired", System.currentTimeMillis() - MINUTE);
+
+        // when
+        service.revoke(jwt);
+
+        // then
+        verify(revokedTokenRepository, never()).insertIgnore(anyString(), any(), any());
+        assertThat(service.isRevoked(jwt)).isFalse();
+    }
+
+    @Test
+    public void tokenWithoutJtiIsNeverRevoked() {
+        // given
+        String token = JWT.create()
+                .withExpiresAt(new Date(System.currentTimeMillis() + 5 * MINUTE))
+                .sign(Algorithm.HMAC512("test"));
+
+        // when
+        boolean revoked = service.isRevoked(JWT.decode(token));
+
+        // then
+        assertThat(revoked).isFalse();
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    public void tokenRevokedOnOtherInstanceIsFoundAfterSync() {
+        // given
+        long expiresAt = System.currentTimeMillis() + 5 * MINUTE;
+        DecodedJWT jwt = token("elsewhere", expiresAt);
+        RevokedToken revokedToken = mock(RevokedToken.class);
+        when(revokedToken.getJti()).thenReturn("elsewhere");
+        when(revokedToken.getExpiresAt()).thenReturn(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(revokedToken));
+        when(revokedTokenRepository.existsById("elsewhere")).thenReturn(true);
+        assertThat(service.isRevoked(jwt)).isFalse();
+
+        // when
+        service.sync();
+
+        // then
+        assertThat(service.isRevoked(jwt)).isTrue();
+        // 확인한 결과는 남겨 두고 다시 조회하지 않는다
+        assertThat(service.isRevoked(jwt)).isTrue();
+        verify(revokedTokenRepository, times(1)).existsById("elsewhere");
+    }
+
+    @Test
+    public void pastBucketIsDroppedOnSync() {
+        // given : 두 bucket 전에 만료된 토큰이 filter에 남아 있는 상태
+        long expiresAt = System.currentTimeMillis() - 2 * AT_EXP_TIME;
+        DecodedJWT jwt = token("old", expiresAt);
+        ReflectionTestUtils.invokeMethod(service, "remember", "old", expiresAt);
+        when(revokedTokenRepository.existsById("old")).thenReturn(false);
+        service.isRevoked(jwt);
+        verify(revokedTokenRepository, times(1)).existsById("old");
+
+        // when
+        service.sync();
+
+        // then : bucket이 없어 filter에서 바로 false, 테이블을 보지 않는다
+        assertThat(service.isRevoked(jwt)).isFalse();
+        verify(revokedTokenRepository, times(1)).existsById("old");
+    }
+
+    @Test
+    public void currentBucketIsKeptOnSync() {
+        // given
+        DecodedJWT jwt = token("current", System.currentTimeMillis() + 5 * MINUTE);
+        service.revoke(jwt);
+
+        // when
+        service.sync();
+
+        // then
+        assertThat(service.isRevoked(jwt)).isTrue();
+    }
+
+    private static DecodedJWT token(String jti, long expiresAtMillis) {
+        String token = JWT.create()
+                .withJWTId(jti)
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(Algorithm.HMAC512("test"));
+        return JWT.decode(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.marizoo.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 넣은 값은 항상 찾고, 넣지 않은 값의 오탐률이 설정값 근처인지 확인한다.
+ */
+class BloomFilterTest {
+
+    static final int INSERTIONS = 10_000;
+    static final int PROBES = 100_000;
+
+    @Test
+    public void insertedValuesAreAlwaysFound() {
+        // given
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        String[] values = new String[INSERTIONS];
+        for (int i = 0; i < INSERTIONS; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        // then
+        for (String value : values) {
+            assertThat(filter.mightContain(value)).isTrue();
+        }
+    }
+
+    @Test
+    public void falsePositiveRateIsNearConfiguredRate() {
+        for (double rate : new double[]{0.01, 0.001}) {
+            // given
+            BloomFilter filter = new BloomFilter(INSERTIONS, rate);
+            for (int i = 0; i < INSERTIONS; i++) {
+                filter.put("in-" + i);
+            }
+
+            // when
+            int falsePositives = 0;
+            for (int i = 0; i < PROBES; i++) {
+                if (filter.mightContain("out-" + i)) {
+                    falsePositives++;
+                }
+            }
+
+            // then
+            assertThat((double) falsePositives / PROBES).isLessThan(rate * 2);
+        }
+    }
+
+    @Test
+    public void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+
+        assertThat(filter.mightContain("jti")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+}
@@ -0,0 +1,87 @@
+package com.marizoo.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 추가/삭제를 섞어도 HashSet과 같은 결과인지, 삭제 후에도 탐사 경로가 끊기지 않는지 확인한다.
+ */
+class LongHashSetTest {
+
+    @Test
+    public void addContainsRemove() {
+        // given
+        LongHashSet set = new LongHashSet();
+
+        // when
+        boolean added = set.add(7);
+        boolean addedAgain = set.add(7);
+
+        // then
+        assertThat(added).isTrue();
+        assertThat(addedAgain).isFalse();
+        assertThat(set.contains(7)).isTrue();
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.remove(7)).isTrue();
+        assertThat(set.remove(7)).isFalse();
+        assertThat(set.contains(7)).isFalse();
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void nonPositiveValuesAreRejected() {
+        LongHashSet set = new LongHashSet();
+
+        assertThatThrownBy(() -> set.add(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> set.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.remove(-1)).isFalse();
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        // given
+        LongHashSet set = new LongHashSet();
+
+        // when
+        for (long value = 1; value <= 10_000; value++) {
+            set.add(value);
+        }
+
+        // then
+        assertThat(set.size()).isEqualTo(10_000);
+        assertThat(set.toArray()).hasSize(10_000);
+        for (long value = 1; value <= 10_000; value++) {
+            assertThat(set.contains(value)).isTrue();
+        }
+        assertThat(set.contains(10_001)).isFalse();
+    }
+
+    @Test
+    public void randomOperationsMatchHashSet() {
+        Random random = new Random(208);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // 좁은 범위에서 뽑아 충돌과 삭제 후 당기기가 자주 일어나게 한다
+            long value = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(set.add(value)).isEqualTo(expected.add(value));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = 1; value <= 2_000; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+        assertThat(set.toArray()).containsExactlyInAnyOrder(expected.stream().mapToLong(Long::longValue).toArray());
+    }
+}